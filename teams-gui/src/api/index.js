@@ -134,6 +134,14 @@ export function invite(invitation) {
     return postPutJson("invitations", invitation);
 }
 
+export function inviteJob(invitation) {
+    return postPutJson("invitations/jobs", invitation);
+}
+
+export function getInvitationJob(id) {
+    return fetchJson("invitations/jobs/" + id);
+}
+
 export function getInvitation(id) {
     return fetchJson("invitations/" + id);
 }
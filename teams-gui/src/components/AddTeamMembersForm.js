@@ -6,12 +6,15 @@ import {EmailField} from "./EmailField";
 import {addDays, isEmpty, stopEvent} from "../utils/utils";
 import Select from "react-select";
 import {currentUserRoleInTeam, ROLES} from "../utils/roles";
-import {invite} from "../api";
+import {getInvitationJob, invite, inviteJob} from "../api";
 import {setFlash} from "../flash/events";
 import {DateField} from "./DateField";
 import Tooltip from "./Tooltip";
 import ErrorIndicator from "./ErrorIndicator";
 
+//Large uploads are invited in the background by the server and polled for progress
+const INVITATION_JOB_THRESHOLD = 50;
+const INVITATION_JOB_POLL_MILLIS = 1000;
 
 export const AddTeamMembersForm = ({team, user, setShowForm, updateTeam, isNewTeam, defaultRole}) => {
 
@@ -47,16 +50,36 @@ export const AddTeamMembersForm = ({team, user, setShowForm, updateTeam, isNewTe
                 message: customMessage,
                 language: invitationLanguage
             }
-            invite(body).then(() => {
-                setShowForm(false);
-                document.title = I18n.t("headerTitles.index", {page: I18n.t("headerTitles.team-details")});
-                updateTeam();
-                setFlash(I18n.t("teamDetails.flash.sendInvitation"))
-            });
+            if (emails.length > INVITATION_JOB_THRESHOLD) {
+                inviteJob(body).then(job => pollInvitationJob(job.id));
+            } else {
+                invite(body).then(() => invitationsSent(I18n.t("teamDetails.flash.sendInvitation")));
+            }
         }
 
     };
 
+    const pollInvitationJob = jobId => {
+        getInvitationJob(jobId).then(job => {
+            if (job.status === "PENDING" || job.status === "RUNNING") {
+                setTimeout(() => pollInvitationJob(jobId), INVITATION_JOB_POLL_MILLIS);
+            } else {
+                invitationsSent(I18n.t("teamDetails.flash.sendInvitationJob", {
+                    invited: job.invited,
+                    skipped: job.skipped,
+                    failed: job.failed
+                }));
+            }
+        });
+    };
+
+    const invitationsSent = flashMessage => {
+        setShowForm(false);
+        document.title = I18n.t("headerTitles.index", {page: I18n.t("headerTitles.team-details")});
+        updateTeam();
+        setFlash(flashMessage);
+    };
+
     const addEmail = newEmails => {
         setEmails(emails.concat(newEmails));
     }
@@ -169,6 +169,7 @@ I18n.translations.en = {
             removeMember: "Member has been removed",
             removeInvitation: "Invitation has been removed",
             sendInvitation: "Invitation(s) have been sent",
+            sendInvitationJob: "{{invited}} invitation(s) have been sent, {{skipped}} skipped as already invited or member, {{failed}} failed",
             resendInvitation: "Invitation has been resent",
             removeJoinRequest: "Join request has been removed",
             approveJoinRequest: "Join request has been approved",
@@ -223,6 +224,7 @@ I18n.translations.en = {
         object: "Team",
         publicLinkDisabled: "Public link enabled",
         hideMembers: "Hide members from each other",
+        joinRequestDigest: "Send join requests in a periodic digest",
         publicLinkReset: "Reset public link",
         publicLinkResetConfirmation: "Are you sure you want to reset the public link? The current public link will be no longer valid.",
         placeholders: {
@@ -236,7 +238,8 @@ I18n.translations.en = {
             personalNote: "This note is only visible for you and other administrators of this Team. You can use this field to specify what this Team is used for, for instance.",
             immutableName: "The name of a team can not be changed once the team is created",
             publicLinkDisabled: "If enabled, people who have the public link can join the Team as member without the need for approval by admins or managers.",
-            hideMembers: "If enabled, team members can't see their fellow members. Consider this if the team is solely used for authorization"
+            hideMembers: "If enabled, team members can't see their fellow members. Consider this if the team is solely used for authorization",
+            joinRequestDigest: "If enabled, admins periodically receive one mail with all new join requests instead of a mail for every request. Consider this for popular public teams"
         },
         flash: {
             created: "Team {{name}} is created",
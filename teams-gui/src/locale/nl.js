@@ -169,6 +169,7 @@ I18n.translations.nl = {
             removeMember: "Lid is verwijderd",
             removeInvitation: "Uitnodiging is verwijderd",
             sendInvitation: "Uitnodiging(en) zijn verstuurd",
+            sendInvitationJob: "{{invited}} uitnodiging(en) zijn verstuurd, {{skipped}} overgeslagen omdat ze al uitgenodigd of lid zijn, {{failed}} mislukt",
             resendInvitation: "Uitnodiging is opnieuw verstuurd",
             removeJoinRequest: "Toetredingsverzoek is verwijderd",
             approveJoinRequest: "Toetredingsverzoek is goedgekeurd",
@@ -223,6 +224,7 @@ I18n.translations.nl = {
         object: "Team",
         publicLinkDisabled: "Publieke link ingeschakeld",
         hideMembers: "Verberg leden voor elkaar",
+        joinRequestDigest: "Verstuur lidmaatschapsverzoeken in een periodieke samenvatting",
         publicLinkReset: "Reset publieke link",
         publicLinkResetConfirmation: "Weet je zeker dat je de publieke link wil resetten? De huidige publieke link is dan niet meer geldig.",
         placeholders: {
@@ -236,7 +238,8 @@ I18n.translations.nl = {
             personalNote: "Deze notities zijn alleen zichtbaar voor jouzelf en andere beheerers van dit team. Je kunt hier bijvoorbeend nader specificeren waar het voor gebruikt wordt.",
             immutableName: "De naam van het team kan niet meer worden aangepast als het eenmaal is aangemaakt",
             publicLinkDisabled: "Indien ingeschakeld kan iedereen die over de publieke link beschikt lid worden van het team zonder verdere goedkeuring door de beheerders of managers.",
-            hideMembers: "Indien ingeschakeld, kunnen teamleden hun medeleden niet zien. Overweeg dit als het team alleen voor autorisatie wordt gebruikt"
+            hideMembers: "Indien ingeschakeld, kunnen teamleden hun medeleden niet zien. Overweeg dit als het team alleen voor autorisatie wordt gebruikt",
+            joinRequestDigest: "Indien ingeschakeld, ontvangen beheerders periodiek één mail met alle nieuwe lidmaatschapsverzoeken in plaats van een mail per verzoek. Overweeg dit voor populaire publieke teams"
         },
         flash: {
             created: "Team {{name}} aangemaakt",
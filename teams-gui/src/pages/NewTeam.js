@@ -161,6 +161,14 @@ const NewTeam = ({user}) => {
                                   value={team.hideMembers}/>
                     </div>
 
+                    {team.id && <div className="input-field ">
+                        <CheckBox name={"join-request-digest"}
+                                  onChange={() => setTeam({...team, joinRequestDigest: !team.joinRequestDigest})}
+                                  info={I18n.t("newTeam.joinRequestDigest")}
+                                  toolTip={I18n.t("newTeam.tooltips.joinRequestDigest")}
+                                  value={team.joinRequestDigest}/>
+                    </div>}
+
                     <div className="input-field ">
                         <label>{I18n.t("newTeam.visibility")}</label>
                         <div className="team-visibilities">
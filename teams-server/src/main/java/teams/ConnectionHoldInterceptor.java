@@ -0,0 +1,107 @@
+package teams;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.BaseSessionEventListener;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import teams.datasource.ReplicaRoutingDataSource;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the time a request holds JDBC connections per endpoint in the {@link #CONNECTION_HOLD_METRIC} timer. The
+ * reads of a request run in read-only services and the writes in the transaction of the handler, so a connection is
+ * only held for the duration of a transaction and never while the response is serialized. With
+ * spring.jpa.open-in-view enabled the same timer measures the hold time of open-session-in-view, for comparison.
+ * <p>
+ * GET requests are marked as read-only, their read-only transactions may be served by the read replica, see
+ * ReplicaRoutingDataSource.
+ */
+@Component
+public class ConnectionHoldInterceptor implements HandlerInterceptor {
+
+    public static final String CONNECTION_HOLD_METRIC = "teams.jdbc.connection.hold";
+    public static final String URI_TAG = "uri";
+    public static final String METHOD_TAG = "method";
+
+    private static final String HELD_NANOS_ATTRIBUTE = ConnectionHoldInterceptor.class.getName() + ".HELD_NANOS";
+
+    private final MeterRegistry meterRegistry;
+
+    public ConnectionHoldInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        request.setAttribute(HELD_NANOS_ATTRIBUTE, new AtomicLong());
+        if (HttpMethod.GET.matches(request.getMethod())) {
+            request.setAttribute(ReplicaRoutingDataSource.READ_ONLY_REQUEST_ATTRIBUTE, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        AtomicLong heldNanos = (AtomicLong) request.getAttribute(HELD_NANOS_ATTRIBUTE);
+        if (heldNanos == null || heldNanos.get() == 0L) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Timer.builder(CONNECTION_HOLD_METRIC)
+                .tag(URI_TAG, pattern == null ? "UNKNOWN" : pattern.toString())
+                .tag(METHOD_TAG, request.getMethod())
+                .register(meterRegistry)
+                .record(heldNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Added to every Hibernate session, see hibernate.session.events.auto in application.yml. Sessions end with their
+     * transaction - or with the request when open-session-in-view is enabled - and add the time they held a
+     * connection to the request they ran in.
+     */
+    public static class ConnectionHoldListener extends BaseSessionEventListener {
+
+        private long acquiredAt = -1L;
+        private long heldNanos;
+
+        @Override
+        public void jdbcConnectionAcquisitionEnd() {
+            acquiredAt = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcConnectionReleaseStart() {
+            if (acquiredAt != -1L) {
+                heldNanos += System.nanoTime() - acquiredAt;
+                acquiredAt = -1L;
+            }
+        }
+
+        @Override
+        public void end() {
+            jdbcConnectionReleaseStart();
+            RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+            if (heldNanos == 0L || requestAttributes == null) {
+                return;
+            }
+            AtomicLong requestHeldNanos = (AtomicLong) requestAttributes.getAttribute(HELD_NANOS_ATTRIBUTE,
+                    RequestAttributes.SCOPE_REQUEST);
+            if (requestHeldNanos != null) {
+                requestHeldNanos.addAndGet(heldNanos);
+            }
+        }
+    }
+}
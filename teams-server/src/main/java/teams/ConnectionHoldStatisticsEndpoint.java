@@ -0,0 +1,44 @@
+package teams;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static teams.ConnectionHoldInterceptor.CONNECTION_HOLD_METRIC;
+import static teams.ConnectionHoldInterceptor.METHOD_TAG;
+import static teams.ConnectionHoldInterceptor.URI_TAG;
+
+/**
+ * The time the requests on this node held a JDBC connection per endpoint, see {@link ConnectionHoldInterceptor}.
+ */
+@Component
+@Endpoint(id = "connections")
+public class ConnectionHoldStatisticsEndpoint {
+
+    private final MeterRegistry meterRegistry;
+
+    public ConnectionHoldStatisticsEndpoint(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Map<String, Object> result = new TreeMap<>();
+        meterRegistry.find(CONNECTION_HOLD_METRIC).timers().stream()
+                .filter(timer -> timer.count() > 0)
+                .forEach(timer -> {
+                    Map<String, Object> statistics = new TreeMap<>();
+                    statistics.put("requests", timer.count());
+                    statistics.put("totalTimeMillis", timer.totalTime(TimeUnit.MILLISECONDS));
+                    statistics.put("meanTimeMillis", timer.mean(TimeUnit.MILLISECONDS));
+                    statistics.put("maxTimeMillis", timer.max(TimeUnit.MILLISECONDS));
+                    result.put(timer.getId().getTag(METHOD_TAG) + " " + timer.getId().getTag(URI_TAG), statistics);
+                });
+        return result;
+    }
+}
@@ -1,21 +1,42 @@
 package teams;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import teams.api.BulkInvitationService;
+import teams.api.JoinRequestDigestService;
 import teams.domain.Invitation;
 import teams.domain.Membership;
 import teams.domain.Person;
 import teams.repository.InvitationRepository;
 import teams.repository.MembershipRepository;
 import teams.repository.PersonRepository;
+import teams.repository.SchedulerLockRepository;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
 
 import static teams.domain.Invitation.EXPIRY_MILLIS;
 
@@ -25,6 +46,12 @@ public class Scheduler {
 
     private static final Logger LOG = LoggerFactory.getLogger(Scheduler.class);
 
+    public static final String RUNS_METRIC = "teams.scheduler.runs";
+    public static final String ROWS_METRIC = "teams.scheduler.rows";
+    public static final String OVERRUNS_METRIC = "teams.scheduler.overruns";
+    public static final String FAILURES_METRIC = "teams.scheduler.failures";
+    public static final String JOB_TAG = "job";
+
     @Autowired
     private PersonRepository personRepository;
 
@@ -34,41 +61,224 @@ public class Scheduler {
     @Autowired
     private InvitationRepository invitationRepository;
 
+    @Autowired
+    private JoinRequestDigestService joinRequestDigestService;
+
+    @Autowired
+    private BulkInvitationService bulkInvitationService;
+
+    @Autowired
+    private SchedulerLockRepository schedulerLockRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${cron.node-cron-job-responsible}")
     private boolean nodeCronJobResponsible;
 
+    @Value("${cron.lock-at-most-seconds}")
+    private long lockAtMostSeconds;
+
+    @Value("${cron.lock-at-least-seconds}")
+    private long lockAtLeastSeconds;
+
+    private final String lockHolder = String.format("%s-%s", hostName(), UUID.randomUUID());
+
+    private final Map<String, AtomicBoolean> runningJobs = new ConcurrentHashMap<>();
+
+    /*
+     * The jobs share a cron expression. With the default single thread they would run one after another and a slow
+     * job would delay the others.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${cron.pool-size}") int poolSize) {
+        ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(poolSize);
+        taskScheduler.setThreadNamePrefix("scheduler-");
+        taskScheduler.setErrorHandler(t -> LOG.error("Unexpected exception in scheduled task", t));
+        return taskScheduler;
+    }
+
     @Value("${sp_dashboard.person-urn}")
     private String spDashboardUser;
 
+    @Value("${cron.purge-chunk-size}")
+    private int purgeChunkSize;
+
+    @Value("${cron.purge-chunk-pause-millis}")
+    private long purgeChunkPauseMillis;
+
     @Scheduled(cron = "${cron.expression}")
     public int removeExpiredMemberships() {
-        return this.removeExpired(membershipRepository::deleteExpiredMemberships, 0L, Membership.class);
+        Function<Long, Integer> removeFunction = retentionDays -> {
+            Instant expiredBefore = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
+            return this.removeInKeysetChunks(
+                    (afterId, limit) -> membershipRepository.findExpiredMembershipIds(expiredBefore, afterId, PageRequest.of(0, limit)),
+                    ids -> membershipRepository.deleteExpiredMemberships(ids, expiredBefore),
+                    Membership.class);
+        };
+        return this.removeExpired("removeExpiredMemberships", removeFunction, 0L, Membership.class);
     }
 
     @Scheduled(cron = "${cron.expression}")
     public int removeExpiredInvitations() {
-        return this.removeExpired(invitationRepository::deleteExpiredInvitations, System.currentTimeMillis() - EXPIRY_MILLIS, Invitation.class);
+        Function<Long, Integer> removeFunction = l -> this.removeInChunks(
+                limit -> invitationRepository.deleteExpiredInvitations(l, limit), Invitation.class);
+        return this.removeExpired("removeExpiredInvitations", removeFunction, System.currentTimeMillis() - EXPIRY_MILLIS, Invitation.class);
     }
 
     @Scheduled(cron = "${cron.expression}")
     public int removeOrphanPersons() {
-        Function<Long, Integer> removeFunction = l -> personRepository.deleteOrphanPersons(l, Collections.singletonList(spDashboardUser));
-        return this.removeExpired(removeFunction, 1L, Person.class);
+        List<String> urns = Collections.singletonList(spDashboardUser);
+        Function<Long, Integer> removeFunction = retentionDays -> {
+            Instant lastLoginBefore = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
+            return this.removeInKeysetChunks(
+                    (afterId, limit) -> personRepository.findOrphanPersonIds(lastLoginBefore, afterId, urns, PageRequest.of(0, limit)),
+                    //The conditions are checked again, a person might have logged in or been invited in the meantime
+                    ids -> personRepository.deleteOrphanPersons(ids, lastLoginBefore),
+                    Person.class);
+        };
+        return this.removeExpired("removeOrphanPersons", removeFunction, 1L, Person.class);
+    }
+
+    @Scheduled(cron = "${cron.join-request-digest-expression}")
+    public int sendJoinRequestDigests() {
+        return this.runLocked("sendJoinRequestDigests", () -> {
+            int count = joinRequestDigestService.sendDigests();
+            LOG.info(String.format("Sent %s join request digests", count));
+            return count;
+        });
+    }
+
+    @Scheduled(cron = "${cron.expression}")
+    public int failStaleInvitationJobs() {
+        return this.runLocked("failStaleInvitationJobs", () -> bulkInvitationService.failStaleJobs());
+    }
+
+    private int removeExpired(String job, Function<Long, Integer> removeFunction, Long argument, Class clazz) {
+        return this.runLocked(job, () -> {
+            long start = System.currentTimeMillis();
+            int count = removeFunction.apply(argument);
+            LOG.info(String.format("Removed %s %s that were expired in %s ms",
+                    count, clazz.getName(), System.currentTimeMillis() - start));
+            return count;
+        });
     }
 
-    private int removeExpired(Function<Long, Integer> removeFunction, Long argument, Class clazz) {
-        if (nodeCronJobResponsible) {
-            try {
-                int count = removeFunction.apply(argument);
-                LOG.info(String.format("Removed %s %s that were expired", count, clazz.getName()));
-                return count;
-            } catch (Throwable t) {//NOSONAR
-                //deliberate swallowing because otherwise the scheduler stops
-                LOG.error(String.format("Unexpected exception in removing expired %s", clazz.getName()), t);
-                return -1;
+    /*
+     * All nodes fire every job, the one that takes the lock runs it. When the holder dies the lock expires after
+     * lock-at-most-seconds and another node takes over on its next tick.
+     */
+    private int runLocked(String job, IntSupplier task) {
+        if (!nodeCronJobResponsible) {
+            return 0;
+        }
+        AtomicBoolean running = runningJobs.computeIfAbsent(job, name -> new AtomicBoolean());
+        if (!running.compareAndSet(false, true)) {
+            LOG.warn(String.format("Skipping %s, the previous run is still in progress", job));
+            meterRegistry.counter(OVERRUNS_METRIC, JOB_TAG, job).increment();
+            return 0;
+        }
+        boolean locked = false;
+        try {
+            locked = schedulerLockRepository.insertLock(job, lockHolder, lockAtMostSeconds) == 1 ||
+                    schedulerLockRepository.takeLock(job, lockHolder, lockAtMostSeconds) == 1;
+            if (!locked) {
+                LOG.debug(String.format("Skipping %s, it is locked by another node", job));
+                return 0;
+            }
+            Timer.Sample sample = Timer.start(meterRegistry);
+            int count = task.getAsInt();
+            sample.stop(meterRegistry.timer(RUNS_METRIC, JOB_TAG, job));
+            meterRegistry.summary(ROWS_METRIC, JOB_TAG, job).record(count);
+            return count;
+        } catch (Throwable t) {//NOSONAR
+            //deliberate swallowing because otherwise the scheduler stops
+            LOG.error(String.format("Unexpected exception in %s", job), t);
+            meterRegistry.counter(FAILURES_METRIC, JOB_TAG, job).increment();
+            return -1;
+        } finally {
+            if (locked) {
+                releaseLock(job);
             }
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning(String job) {
+        AtomicBoolean running = runningJobs.get(job);
+        return running != null && running.get();
+    }
+
+    private void releaseLock(String job) {
+        try {
+            schedulerLockRepository.releaseLock(job, lockHolder, lockAtLeastSeconds);
+        } catch (RuntimeException e) {
+            //The lock expires after lock-at-most-seconds
+            LOG.error(String.format("Releasing the lock of %s failed", job), e);
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    /*
+     * Each chunk is deleted in its own transaction so locks are released between chunks. The delete function
+     * receives the maximum number of rows to delete and returns the number actually deleted.
+     */
+    private int removeInChunks(IntUnaryOperator deleteChunk, Class clazz) {
+        int total = 0;
+        int chunk = 0;
+        while (true) {
+            int deleted = deleteChunk.applyAsInt(purgeChunkSize);
+            total += deleted;
+            chunk++;
+            LOG.info(String.format("Removed %s %s in chunk %s", deleted, clazz.getName(), chunk));
+            if (deleted < purgeChunkSize || !pauseBetweenChunks()) {
+                return total;
+            }
+        }
+    }
+
+    /*
+     * Keyset variant for deletes that re-check their conditions: the ids of each chunk are selected after the last
+     * id of the previous chunk, so rows that are selected but not deleted do not come back in the next chunk.
+     */
+    private int removeInKeysetChunks(BiFunction<Long, Integer, List<Long>> selectChunk,
+                                     ToIntFunction<List<Long>> deleteChunk,
+                                     Class clazz) {
+        int total = 0;
+        int chunk = 0;
+        long afterId = 0L;
+        while (true) {
+            List<Long> ids = selectChunk.apply(afterId, purgeChunkSize);
+            if (ids.isEmpty()) {
+                return total;
+            }
+            int deleted = deleteChunk.applyAsInt(ids);
+            total += deleted;
+            chunk++;
+            LOG.info(String.format("Removed %s of %s selected %s in chunk %s", deleted, ids.size(), clazz.getName(), chunk));
+            if (ids.size() < purgeChunkSize || !pauseBetweenChunks()) {
+                return total;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    private boolean pauseBetweenChunks() {
+        try {
+            Thread.sleep(purgeChunkPauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
-        return 0;
     }
 
 }
@@ -0,0 +1,67 @@
+package teams;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static teams.Scheduler.FAILURES_METRIC;
+import static teams.Scheduler.JOB_TAG;
+import static teams.Scheduler.OVERRUNS_METRIC;
+import static teams.Scheduler.ROWS_METRIC;
+import static teams.Scheduler.RUNS_METRIC;
+
+/**
+ * The runs of the scheduled jobs on this node, see {@link Scheduler}.
+ */
+@Component
+@Endpoint(id = "scheduler")
+public class SchedulerStatisticsEndpoint {
+
+    private final MeterRegistry meterRegistry;
+    private final Scheduler scheduler;
+
+    public SchedulerStatisticsEndpoint(MeterRegistry meterRegistry, Scheduler scheduler) {
+        this.meterRegistry = meterRegistry;
+        this.scheduler = scheduler;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        //A job that only overran or failed has no runs timer
+        Set<String> jobs = new TreeSet<>();
+        Stream.of(RUNS_METRIC, OVERRUNS_METRIC, FAILURES_METRIC).forEach(name -> meterRegistry.find(name).meters()
+                .forEach(meter -> jobs.add(meter.getId().getTag(JOB_TAG))));
+
+        Map<String, Object> result = new TreeMap<>();
+        jobs.forEach(job -> {
+            Map<String, Object> statistics = new TreeMap<>();
+            Timer timer = meterRegistry.find(RUNS_METRIC).tag(JOB_TAG, job).timer();
+            statistics.put("runs", timer == null ? 0 : timer.count());
+            statistics.put("totalTimeMillis", timer == null ? 0 : timer.totalTime(TimeUnit.MILLISECONDS));
+            statistics.put("maxTimeMillis", timer == null ? 0 : timer.max(TimeUnit.MILLISECONDS));
+            DistributionSummary rows = meterRegistry.find(ROWS_METRIC).tag(JOB_TAG, job).summary();
+            statistics.put("rows", rows == null ? 0 : rows.totalAmount());
+            statistics.put("maxRows", rows == null ? 0 : rows.max());
+            statistics.put("overruns", count(meterRegistry.find(OVERRUNS_METRIC).tag(JOB_TAG, job).counter()));
+            statistics.put("failures", count(meterRegistry.find(FAILURES_METRIC).tag(JOB_TAG, job).counter()));
+            statistics.put("running", scheduler.isRunning(job));
+            result.put(job, statistics);
+        });
+        return result;
+    }
+
+    private double count(Counter counter) {
+        return counter == null ? 0 : counter.count();
+    }
+}
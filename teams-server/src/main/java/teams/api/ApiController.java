@@ -48,6 +48,9 @@ public abstract class ApiController implements TeamValidator {
     @Autowired
     protected MailBox mailBox;
 
+    @Autowired
+    protected LookupService lookupService;
+
     public static final String ADMIN_HEADER = "X-ADMIN-HEADER";
 
     protected Team teamById(Long id, boolean includePersons) {
@@ -56,6 +59,18 @@ public abstract class ApiController implements TeamValidator {
         return team;
     }
 
+    protected Object teamView(Team team, Role role, FederatedUser federatedUser) {
+        teamRepository.fetchTeamView(team, !isTeamDetailsSummary(role, federatedUser));
+        return lazyLoadTeam(team, role, federatedUser);
+    }
+
+    /**
+     * Index based membership check that does not need the roster of the team
+     */
+    protected boolean isMember(Long teamId, Person person) {
+        return person.getId() != null && membershipRepository.existsByTeamIdAndPersonId(teamId, person.getId());
+    }
+
     protected Membership membership(Team team, String urn) {
         return team.member(urn)
                 .orElseThrow(() -> new NotAllowedException(format
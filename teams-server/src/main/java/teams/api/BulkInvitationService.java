@@ -0,0 +1,292 @@
+package teams.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import teams.api.validations.InvitationValidator;
+import teams.domain.*;
+import teams.mail.MailBox;
+import teams.repository.InvitationJobRepository;
+import teams.repository.InvitationRepository;
+
+import javax.mail.MessagingException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static teams.domain.Invitation.EXPIRY_MILLIS;
+
+/**
+ * Saves and mails the invitations of large uploads outside the request thread. The addresses are streamed and handled
+ * in bounded batches, so memory use does not depend on the size of the upload. The progress is stored in the
+ * {@link InvitationJob}, so any node can report it.
+ * <p>
+ * The jobs only live in the executor of the node that runs them. A running job updates its heartbeat with every batch
+ * and the node updates the heartbeat of its queued jobs, so the jobs of a node that died are marked as failed by the
+ * Scheduler once their heartbeat is stale. On shutdown the executor is drained and the jobs it drops are marked as
+ * failed.
+ */
+@Service
+public class BulkInvitationService implements InvitationValidator, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkInvitationService.class);
+
+    private final InvitationRepository invitationRepository;
+    private final InvitationJobRepository invitationJobRepository;
+    private final MailBox mailBox;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final int batchSize;
+    private final Duration staleAfter;
+    //Unique per instance, a restarted node or another node with the same host name never owns the jobs of this one
+    private final String node = String.format("%s-%s", hostName(), UUID.randomUUID());
+    private volatile boolean stopped;
+
+    public BulkInvitationService(InvitationRepository invitationRepository,
+                                 InvitationJobRepository invitationJobRepository,
+                                 MailBox mailBox,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${invitation-jobs.threads}") int threads,
+                                 @Value("${invitation-jobs.batch-size}") int batchSize,
+                                 @Value("${invitation-jobs.stale-after-seconds}") long staleAfterSeconds,
+                                 @Value("${invitation-jobs.shutdown-wait-seconds}") int shutdownWaitSeconds) {
+        this.invitationRepository = invitationRepository;
+        this.invitationJobRepository = invitationJobRepository;
+        this.mailBox = mailBox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.staleAfter = Duration.ofSeconds(staleAfterSeconds);
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(threads);
+        this.executor.setMaxPoolSize(threads);
+        this.executor.setThreadNamePrefix("invitation-job-");
+        this.executor.setWaitForTasksToCompleteOnShutdown(true);
+        this.executor.setAwaitTerminationSeconds(shutdownWaitSeconds);
+        this.executor.initialize();
+    }
+
+    @Scheduled(fixedDelayString = "${invitation-jobs.heartbeat-millis}")
+    public void heartbeat() {
+        invitationJobRepository.heartbeatPendingJobs(node, Instant.now());
+    }
+
+    /**
+     * @return the number of jobs of dead nodes that are marked as failed
+     */
+    public int failStaleJobs() {
+        Instant now = Instant.now();
+        int failed = invitationJobRepository.failStaleJobs(now.minus(staleAfter), now);
+        if (failed > 0) {
+            LOG.warn("Marked {} invitation jobs without heartbeat since {} as failed", failed, now.minus(staleAfter));
+        }
+        return failed;
+    }
+
+    public InvitationJob submit(Team team, Role role, ClientInvitation clientInvitation, List<String> emails,
+                                FederatedUser federatedUser) {
+        return submit(team, role, clientInvitation, emails::stream, () -> {
+        }, federatedUser);
+    }
+
+    /**
+     * Takes ownership of the CSV file, which is deleted when the job is done.
+     */
+    public InvitationJob submitCsv(Team team, Role role, ClientInvitation clientInvitation, Path csv,
+                                   FederatedUser federatedUser) {
+        EmailSource emailSource = () -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(csv), StandardCharsets.UTF_8));
+            return csvEmails(reader).onClose(() -> {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+        return submit(team, role, clientInvitation, emailSource, () -> Files.deleteIfExists(csv), federatedUser);
+    }
+
+    private InvitationJob submit(Team team, Role role, ClientInvitation clientInvitation, EmailSource emailSource,
+                                 CleanUp cleanUp, FederatedUser federatedUser) {
+        InvitationJob job = invitationJobRepository.save(new InvitationJob(team.getId(), federatedUser.getUrn(), node));
+        Runnable task = () -> {
+            try {
+                run(job, team, role, clientInvitation, emailSource, federatedUser);
+            } finally {
+                cleanUp(job, cleanUp);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            //The executor updates the job, so it is only started once the transaction of the caller is committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        executor.execute(task);
+                    } else {
+                        cleanUp(job, cleanUp);
+                    }
+                }
+            });
+        } else {
+            executor.execute(task);
+        }
+
+        LOG.info("Submitted invitation job {} by {} for team {}", job.getId(), federatedUser.getUrn(), team.getUrn());
+        return job;
+    }
+
+    private void cleanUp(InvitationJob job, CleanUp cleanUp) {
+        try {
+            cleanUp.run();
+        } catch (IOException e) {
+            LOG.warn(String.format("Clean up of invitation job %s failed", job.getId()), e);
+        }
+    }
+
+    private void run(InvitationJob job, Team team, Role role, ClientInvitation clientInvitation, EmailSource emailSource,
+                     FederatedUser federatedUser) {
+        if (stopped) {
+            //Queued when the node was stopped
+            job.finish(false);
+            invitationJobRepository.save(job);
+            LOG.warn("Invitation job {} for team {} was not started as the node is stopping", job.getId(), team.getUrn());
+            return;
+        }
+        job.start();
+        invitationJobRepository.save(job);
+        try (Stream<String> emails = emailSource.open()) {
+            Iterator<String> iterator = emails.iterator();
+            List<String> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext()) {
+                if (stopped) {
+                    throw new IllegalStateException("The node is stopping");
+                }
+                batch.add(iterator.next());
+                if (batch.size() == batchSize || !iterator.hasNext()) {
+                    processBatch(job, team, role, clientInvitation, batch, federatedUser);
+                    invitationJobRepository.save(job);
+                    batch.clear();
+                }
+            }
+            job.finish(true);
+        } catch (IOException | RuntimeException e) {
+            LOG.error(String.format("Invitation job %s for team %s failed", job.getId(), team.getUrn()), e);
+            job.finish(false);
+        }
+        invitationJobRepository.save(job);
+
+        LOG.info("Finished invitation job {} for team {}: {} invited, {} skipped, {} failed",
+                job.getId(), team.getUrn(), job.getInvited(), job.getSkipped(), job.getFailed());
+    }
+
+    private void processBatch(InvitationJob job, Team team, Role role, ClientInvitation clientInvitation,
+                              List<String> batch, FederatedUser federatedUser) {
+        //Keyed by lower case to dedupe the batch, preserving the first spelling and the order
+        Map<String, String> newEmails = new LinkedHashMap<>();
+        batch.stream().filter(this::validEmail).forEach(email -> newEmails.putIfAbsent(email.toLowerCase(Locale.ROOT), email));
+        if (!newEmails.isEmpty()) {
+            //Earlier batches are committed, so this also dedupes across batches
+            Set<String> existing = new HashSet<>(invitationRepository.findMemberAndOpenInvitationEmails(
+                    team.getId(), newEmails.keySet(), System.currentTimeMillis() - EXPIRY_MILLIS));
+            newEmails.keySet().removeAll(existing);
+        }
+
+        Person person = federatedUser.getPerson();
+        List<Invitation> invitations = new ArrayList<>(newEmails.size());
+        newEmails.values().forEach(email -> invitations.add(new Invitation(
+                team,
+                email,
+                role,
+                clientInvitation.getLanguage(),
+                clientInvitation.getExpiryDate(),
+                clientInvitation.getMembershipExpiryDate()).addInvitationMessage(person, clientInvitation.getMessage())));
+
+        int skipped = batch.size() - invitations.size();
+        if (invitations.isEmpty()) {
+            job.progress(batch.size(), 0, skipped, 0);
+            return;
+        }
+        int[] sentAndFailed;
+        try {
+            //The mails are written to the outbox in the same transaction as the invitations
+            sentAndFailed = transactionTemplate.execute(status -> {
+                int sent = 0;
+                int failed = 0;
+                for (Invitation invitation : invitationRepository.saveAll(invitations)) {
+                    try {
+                        mailBox.sendInviteMail(invitation, federatedUser);
+                        sent++;
+                    } catch (IOException | MessagingException e) {
+                        LOG.error(String.format("Rendering invitation mail to %s of job %s failed", invitation.getEmail(), job.getId()), e);
+                        failed++;
+                    }
+                }
+                return new int[]{sent, failed};
+            });
+        } catch (RuntimeException e) {
+            LOG.error(String.format("Saving %s invitations of job %s for team %s failed",
+                    invitations.size(), job.getId(), team.getUrn()), e);
+            job.progress(batch.size(), 0, skipped, invitations.size());
+            return;
+        }
+        job.progress(batch.size(), sentAndFailed[0], skipped, sentAndFailed[1]);
+    }
+
+    /**
+     * Lets the running jobs finish their current batch and fails the jobs that are left.
+     */
+    @Override
+    public void destroy() {
+        stopped = true;
+        executor.shutdown();
+        int failed = invitationJobRepository.failUnfinishedJobs(node, Instant.now());
+        if (failed > 0) {
+            LOG.warn("Marked {} invitation jobs left unfinished by node {} as failed", failed, node);
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    private interface EmailSource {
+
+        Stream<String> open() throws IOException;
+    }
+
+    private interface CleanUp {
+
+        void run() throws IOException;
+    }
+}
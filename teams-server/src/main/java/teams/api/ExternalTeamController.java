@@ -1,6 +1,8 @@
 package teams.api;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -22,6 +24,9 @@ import static java.util.stream.Collectors.toList;
 @RestController
 public class ExternalTeamController extends ApiController implements ExternalTeamValidator {
 
+    @Autowired
+    private ExternalTeamLinkService externalTeamLinkService;
+
     @GetMapping("api/teams/external-teams/linked-teams")
     public Map<String, List<LinkedTeamInfo>> linkedTeams(FederatedUser federatedUser) {
         List<String> externalTeamIdentifiers = federatedUser.getExternalTeams().stream()
@@ -38,6 +43,7 @@ public class ExternalTeamController extends ApiController implements ExternalTea
                 .collect(groupingBy(LinkedTeamInfo::getExternalTeamIdentifier));
     }
 
+    @Transactional
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("api/teams/external-teams/link")
     public Object linkTeamToExternalTeam(@Validated @RequestBody ExternalTeamProperties externalTeamProperties, FederatedUser federatedUser) {
@@ -63,9 +69,10 @@ public class ExternalTeamController extends ApiController implements ExternalTea
 
         log.info("Team {} linked to external team {} by {}", team.getUrn(), externalTeamIdentifier, federatedUserUrn);
 
-        return lazyLoadTeam(teamRepository.save(team), roleOfLoggedInPerson, federatedUser);
+        return teamView(teamRepository.save(team), roleOfLoggedInPerson, federatedUser);
     }
 
+    @Transactional
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("api/teams/external-teams/delink")
     public Object delinkTeamFromExternalTeam(@Validated @RequestBody ExternalTeamProperties externalTeamProperties, FederatedUser federatedUser) {
@@ -94,7 +101,18 @@ public class ExternalTeamController extends ApiController implements ExternalTea
         if (externalTeam.getTeams().isEmpty()) {
             externalTeamRepository.delete(externalTeam);
         }
-        return lazyLoadTeam(teamSaved, roleOfLoggedInPerson, federatedUser);
+        return teamView(teamSaved, roleOfLoggedInPerson, federatedUser);
+    }
+
+    /**
+     * Links and de-links several external teams at once. In contrast with the single link and de-link the team is
+     * not returned, only a summary of the changes.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("api/teams/external-teams/bulk-link")
+    public ExternalTeamsLinkSummary linkTeamToExternalTeams(@Validated @RequestBody ExternalTeamsLinkProperties externalTeamsLinkProperties,
+                                                            FederatedUser federatedUser) {
+        return externalTeamLinkService.link(externalTeamsLinkProperties, federatedUser);
     }
 
 }
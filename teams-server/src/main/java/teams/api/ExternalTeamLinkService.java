@@ -0,0 +1,142 @@
+package teams.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import teams.api.validations.ExternalTeamValidator;
+import teams.domain.ExternalTeam;
+import teams.domain.ExternalTeamsLinkProperties;
+import teams.domain.ExternalTeamsLinkSummary;
+import teams.domain.FederatedUser;
+import teams.domain.Role;
+import teams.domain.Team;
+import teams.exception.IllegalLinkExternalTeamException;
+import teams.exception.NotAllowedException;
+import teams.exception.ResourceNotFoundException;
+import teams.repository.ExternalTeamRepository;
+import teams.repository.MembershipRepository;
+import teams.repository.TeamRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Links and de-links a team to and from several external teams at once. Unlike the single link and de-link the
+ * roster of the team is not loaded: the role of the user is looked up with one statement and the team is loaded
+ * with its external teams only. All changes of the join table are made in one transaction.
+ */
+@Service
+public class ExternalTeamLinkService implements ExternalTeamValidator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExternalTeamLinkService.class);
+
+    private final TeamRepository teamRepository;
+    private final MembershipRepository membershipRepository;
+    private final ExternalTeamRepository externalTeamRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ExternalTeamLinkService(TeamRepository teamRepository,
+                                   MembershipRepository membershipRepository,
+                                   ExternalTeamRepository externalTeamRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.teamRepository = teamRepository;
+        this.membershipRepository = membershipRepository;
+        this.externalTeamRepository = externalTeamRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Identifiers that are already linked - or not linked when de-linking - are ignored. The request fails as a
+     * whole if one of the identifiers is not an external team of the user.
+     */
+    public ExternalTeamsLinkSummary link(ExternalTeamsLinkProperties properties, FederatedUser federatedUser) {
+        List<String> link = distinct(properties.getLink());
+        List<String> delink = distinct(properties.getDelink());
+        if (link.stream().anyMatch(delink::contains)) {
+            throw new IllegalLinkExternalTeamException("An external team can not be linked and de-linked at the same time");
+        }
+        Map<String, ExternalTeam> externalTeamsOfUser = federatedUser.getExternalTeams().stream()
+                .collect(toMap(ExternalTeam::getIdentifier, Function.identity(), (a, b) -> a));
+        Stream.concat(link.stream(), delink.stream())
+                .filter(identifier -> !externalTeamsOfUser.containsKey(identifier))
+                .findFirst()
+                .ifPresent(identifier -> {
+                    throw new IllegalLinkExternalTeamException(String.format("Person %s is not a member of External Team %s",
+                            federatedUser.getUrn(), identifier));
+                });
+
+        return transactionTemplate.execute(status -> {
+            Team team = teamRepository.findWithExternalTeamsById(properties.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Team not found:" + properties.getId()));
+            Long personId = federatedUser.getPerson().getId();
+            Optional<Role> role = personId == null ? Optional.empty() :
+                    membershipRepository.findRoleByTeamIdAndPersonId(team.getId(), personId);
+            Role roleOfLoggedInPerson = role.orElseThrow(() -> new NotAllowedException(String.format(
+                    "Member %s is not a member of team %s.", federatedUser.getUrn(), team.getUrn())));
+            isAllowedToLinkExternalTeam(roleOfLoggedInPerson, team, federatedUser);
+
+            List<String> toLink = link.stream()
+                    .filter(identifier -> !externalTeamLinkedToTeam(team, externalTeamsOfUser.get(identifier)))
+                    .collect(toList());
+            List<String> toDelink = delink.stream()
+                    .filter(identifier -> externalTeamLinkedToTeam(team, externalTeamsOfUser.get(identifier)))
+                    .collect(toList());
+
+            //One statement for all external teams that are already stored, including their links to other teams
+            List<String> identifiers = Stream.concat(toLink.stream(), toDelink.stream()).collect(toList());
+            Map<String, ExternalTeam> stored = identifiers.isEmpty() ? Map.of() :
+                    externalTeamRepository.findWithTeamsByIdentifierIn(identifiers).stream()
+                            .collect(toMap(ExternalTeam::getIdentifier, Function.identity()));
+
+            Instant now = Instant.now();
+            List<ExternalTeam> linked = new ArrayList<>();
+            toLink.forEach(identifier -> {
+                //The external team may already be linked to another team
+                ExternalTeam externalTeam = stored.getOrDefault(identifier, externalTeamsOfUser.get(identifier));
+                externalTeam.setAdminName(federatedUser.getUsername());
+                externalTeam.setCreatedAt(now);
+                team.getExternalTeams().add(externalTeam);
+                externalTeam.getTeams().add(team);
+                linked.add(externalTeam);
+            });
+
+            List<ExternalTeam> orphans = new ArrayList<>();
+            toDelink.forEach(identifier -> {
+                ExternalTeam externalTeam = stored.get(identifier);
+                team.getExternalTeams().remove(externalTeam);
+                externalTeam.getTeams().remove(team);
+                if (externalTeam.getTeams().isEmpty()) {
+                    orphans.add(externalTeam);
+                }
+            });
+
+            externalTeamRepository.saveAll(linked);
+            externalTeamRepository.deleteAll(orphans);
+
+            LOG.info("Team {} linked to external teams {} and de-linked from external teams {} by {}",
+                    team.getUrn(), toLink, toDelink, federatedUser.getUrn());
+
+            List<String> externalTeams = team.getExternalTeams().stream()
+                    .map(ExternalTeam::getIdentifier)
+                    .sorted()
+                    .collect(toList());
+            return new ExternalTeamsLinkSummary(team.getId(), team.getUrn(), toLink, toDelink, externalTeams);
+        });
+    }
+
+    private List<String> distinct(List<String> identifiers) {
+        return identifiers == null ? List.of() :
+                identifiers.stream().filter(Objects::nonNull).distinct().collect(toList());
+    }
+}
@@ -1,14 +1,23 @@
 package teams.api;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import teams.api.validations.InvitationValidator;
 import teams.api.validations.MembershipValidator;
 import teams.domain.*;
+import teams.exception.IllegalInviteException;
+import teams.exception.NotAllowedException;
 import teams.exception.ResourceNotFoundException;
+import teams.repository.InvitationJobRepository;
 
 import javax.mail.MessagingException;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.List;
 
@@ -17,15 +26,21 @@ import static java.util.stream.Collectors.toList;
 @RestController
 public class InvitationController extends ApiController implements MembershipValidator, InvitationValidator {
 
-    @GetMapping("api/teams/invitations/{id}")
-    public Invitation invitation(@PathVariable("id") Long id, FederatedUser federatedUser) {
-        Invitation invitation = invitationRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Invitation not found:" + id));
+    @Autowired
+    private BulkInvitationService bulkInvitationService;
 
-        mustBeTeamAdminOrManager(invitation, federatedUser);
+    @Autowired
+    private InvitationJobRepository invitationJobRepository;
 
-        return invitation;
+    @Autowired
+    private InvitationReadService invitationReadService;
+
+    @GetMapping("api/teams/invitations/{id}")
+    public Invitation invitation(@PathVariable("id") Long id, FederatedUser federatedUser) {
+        return invitationReadService.invitation(id, federatedUser);
     }
 
+    @Transactional
     @PostMapping("api/teams/invitations")
     public List<Invitation> invite(@Validated @RequestBody ClientInvitation clientInvitation,
                                    FederatedUser federatedUser) throws IOException {
@@ -52,6 +67,60 @@ public class InvitationController extends ApiController implements MembershipVal
         return saveAndSendInvitation(invitations, team, person, federatedUser);
     }
 
+    @Transactional
+    @PostMapping("api/teams/invitations/jobs")
+    public InvitationJob inviteJob(@Validated @RequestBody ClientInvitation clientInvitation,
+                                   FederatedUser federatedUser) throws IOException {
+        Team team = teamById(clientInvitation.getTeamId(), false);
+        Person person = federatedUser.getPerson();
+
+        membershipRequired(team, person);
+        Role role = determineFutureRole(team, person, clientInvitation.getIntendedRole());
+
+        validateClientInvitation(clientInvitation);
+
+        return bulkInvitationService.submit(team, role, clientInvitation, emails(clientInvitation), federatedUser);
+    }
+
+    @Transactional
+    @PostMapping(value = "api/teams/invitations/jobs/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public InvitationJob inviteCsvJob(@Validated @RequestPart("invitation") ClientInvitation clientInvitation,
+                                      @RequestPart("file") MultipartFile file,
+                                      FederatedUser federatedUser) throws IOException {
+        Team team = teamById(clientInvitation.getTeamId(), false);
+        Person person = federatedUser.getPerson();
+
+        membershipRequired(team, person);
+        Role role = determineFutureRole(team, person, clientInvitation.getIntendedRole());
+
+        if (file.isEmpty()) {
+            throw new IllegalInviteException("File with emails is required");
+        }
+        validateExpiryDate(clientInvitation);
+
+        //The multipart file is gone after this request, the job streams its own copy
+        Path csv = Files.createTempFile("invitation-job-", ".csv");
+        try {
+            file.transferTo(csv);
+        } catch (IOException e) {
+            Files.deleteIfExists(csv);
+            throw e;
+        }
+        return bulkInvitationService.submitCsv(team, role, clientInvitation, csv, federatedUser);
+    }
+
+    @GetMapping("api/teams/invitations/jobs/{id}")
+    public InvitationJob invitationJob(@PathVariable("id") Long id, FederatedUser federatedUser) {
+        InvitationJob job = invitationJobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Invitation job not found:" + id));
+        if (!job.getUrnPerson().equals(federatedUser.getUrn()) && !federatedUser.getPerson().isSuperAdmin()) {
+            throw new NotAllowedException(String.format(
+                    "Person %s did not submit invitation job %s", federatedUser.getUrn(), id));
+        }
+        return job;
+    }
+
+    @Transactional
     @DeleteMapping("api/teams/invitations/{id}")
     public void delete(@PathVariable("id") Long id,
                        FederatedUser federatedUser) throws IOException, MessagingException {
@@ -65,6 +134,7 @@ public class InvitationController extends ApiController implements MembershipVal
                 invitation.getTeam().getUrn(), federatedUser.getUrn());
     }
 
+    @Transactional
     @PutMapping("api/teams/invitations")
     public Invitation resend(@Validated @RequestBody ClientResendInvitation resendInvitation,
                              FederatedUser federatedUser) throws IOException, MessagingException {
@@ -89,14 +159,10 @@ public class InvitationController extends ApiController implements MembershipVal
 
     @GetMapping("api/teams/invitations/info/{key}")
     public InvitationInfo invitationInfo(@PathVariable("key") String key, FederatedUser federatedUser) {
-        Invitation invitation = invitationRepository.findFirstByInvitationHash(key).orElseThrow(() -> {
-            log.info("Invitation not found with hash '%s' for user '%s'", key, federatedUser.getPerson().getEmail());
-            return new ResourceNotFoundException(String.format("Invitation %s not found", key));
-
-        });
-        return new InvitationInfo(invitation, federatedUser);
+        return invitationReadService.invitationInfo(key, federatedUser);
     }
 
+    @Transactional
     @PutMapping("api/teams/invitations/accept/{key}")
     public Team accept(@PathVariable("key") String key, FederatedUser federatedUser) throws IOException, MessagingException {
         Person person = federatedUser.getPerson();
@@ -113,13 +179,28 @@ public class InvitationController extends ApiController implements MembershipVal
         return teamRepository.save(team);
     }
 
+    @Transactional
     @PutMapping("api/teams/invitations/deny/{key}")
     public Invitation deny(@PathVariable("key") String key, FederatedUser federatedUser) {
-        return doAcceptOrDeny(key, false, federatedUser.getPerson());
+        Person person = federatedUser.getPerson();
+        Invitation invitation = lookupService.invitationByHash(key).orElseThrow(() ->
+                new ResourceNotFoundException(String.format("Invitation %s not found", key))
+        );
+        validateInvitation(invitation, isMember(invitation.getTeam().getId(), person));
+        return acceptOrDeny(invitation, false, person);
     }
 
     private Invitation doAcceptOrDeny(String key, boolean accepted, Person person) {
-        Invitation invitation = getInvitationByHash(key, person);
+        Invitation invitation = lookupService.invitationByHash(key).orElseThrow(() ->
+                new ResourceNotFoundException(String.format("Invitation %s not found", key))
+        );
+        //Accepting adds a membership to the team, so the roster is loaded as well
+        teamById(invitation.getTeam().getId(), true);
+        validateInvitation(invitation, person);
+        return acceptOrDeny(invitation, accepted, person);
+    }
+
+    private Invitation acceptOrDeny(Invitation invitation, boolean accepted, Person person) {
         invitation.accepted(accepted);
 
         log.info("Invitation {} for team {} and person {}",
@@ -127,12 +208,4 @@ public class InvitationController extends ApiController implements MembershipVal
 
         return invitationRepository.save(invitation);
     }
-
-    private Invitation getInvitationByHash(String key, Person person) {
-        Invitation invitation = invitationRepository.findFirstByInvitationHash(key).orElseThrow(() ->
-                new ResourceNotFoundException(String.format("Invitation %s not found", key))
-        );
-        validateInvitation(invitation, person);
-        return invitation;
-    }
 }
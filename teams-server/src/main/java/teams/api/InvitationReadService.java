@@ -0,0 +1,59 @@
+package teams.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import teams.api.validations.InvitationValidator;
+import teams.domain.FederatedUser;
+import teams.domain.Invitation;
+import teams.domain.InvitationInfo;
+import teams.domain.Person;
+import teams.domain.Role;
+import teams.exception.ResourceNotFoundException;
+import teams.repository.InvitationRepository;
+import teams.repository.MembershipRepository;
+
+import java.util.Arrays;
+
+/**
+ * The reads of invitations, each in one read-only transaction.
+ */
+@Service
+@Transactional(readOnly = true)
+public class InvitationReadService implements InvitationValidator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InvitationReadService.class);
+
+    private final InvitationRepository invitationRepository;
+    private final MembershipRepository membershipRepository;
+    private final LookupService lookupService;
+
+    public InvitationReadService(InvitationRepository invitationRepository,
+                                 MembershipRepository membershipRepository,
+                                 LookupService lookupService) {
+        this.invitationRepository = invitationRepository;
+        this.membershipRepository = membershipRepository;
+        this.lookupService = lookupService;
+    }
+
+    public Invitation invitation(Long id, FederatedUser federatedUser) {
+        Invitation invitation = invitationRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Invitation not found:" + id));
+
+        mustBeTeamAdminOrManager(invitation, federatedUser);
+
+        return invitation;
+    }
+
+    public InvitationInfo invitationInfo(String key, FederatedUser federatedUser) {
+        Invitation invitation = lookupService.invitationByHash(key).orElseThrow(() -> {
+            LOG.info("Invitation not found with hash '{}' for user '{}'", key, federatedUser.getPerson().getEmail());
+            return new ResourceNotFoundException(String.format("Invitation %s not found", key));
+        });
+        Long teamId = invitation.getTeam().getId();
+        Person person = federatedUser.getPerson();
+        boolean member = person.getId() != null && membershipRepository.existsByTeamIdAndPersonId(teamId, person.getId());
+        return new InvitationInfo(invitation, member,
+                membershipRepository.findByTeamIdAndRoleIn(teamId, Arrays.asList(Role.ADMIN, Role.OWNER)));
+    }
+}
@@ -1,5 +1,7 @@
 package teams.api;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import teams.api.validations.JoinRequestValidator;
@@ -9,6 +11,7 @@ import teams.exception.ResourceNotFoundException;
 
 import javax.mail.MessagingException;
 import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 
 import static java.util.stream.Collectors.toList;
@@ -16,13 +19,15 @@ import static java.util.stream.Collectors.toList;
 @RestController
 public class JoinRequestController extends ApiController implements MembershipValidator, JoinRequestValidator {
 
+    @Autowired
+    private TeamReadService teamReadService;
+
     @GetMapping("api/teams/join-requests/{id}")
     public JoinRequest joinRequest(@PathVariable("id") Long id, FederatedUser federatedUser) {
-        JoinRequest joinRequest = notNullGetJoinRequest(id);
-        validateJoinRequest(joinRequest, federatedUser);
-        return joinRequest;
+        return teamReadService.joinRequest(id, federatedUser);
     }
 
+    @Transactional
     @PostMapping("api/teams/join-requests")
     public JoinRequest join(@Validated @RequestBody ClientJoinRequest clientJoinRequest, FederatedUser federatedUser) throws MessagingException, IOException {
         Team team = teamById(clientJoinRequest.getTeamId(), true);
@@ -38,17 +43,25 @@ public class JoinRequestController extends ApiController implements MembershipVa
         privateTeamDoesNotAllowMembers(team, person);
 
         JoinRequest joinRequest = new JoinRequest(person, team, clientJoinRequest.getMessage());
+        //With a digest the admins are notified by JoinRequestDigestService
+        boolean notifyNow = !team.isJoinRequestDigest();
+        if (notifyNow) {
+            joinRequest.setNotified(Instant.now());
+        }
         joinRequestRepository.save(joinRequest);
 
         joinRequestRepository.deleteAll(existingJoinRequestForTheSameTeam);
 
-        mailBox.sendJoinRequestMail(joinRequest, admins, federatedUser);
+        if (notifyNow) {
+            mailBox.sendJoinRequestMail(joinRequest, admins, federatedUser);
+        }
 
         log.info("Created joinRequest for team {} and person {}", team.getUrn(), person.getUrn());
 
         return joinRequest;
     }
 
+    @Transactional
     @PutMapping("api/teams/join-requests/approve")
     public Membership approve(@Validated @RequestBody IdHolder idHolder, FederatedUser federatedUser) throws MessagingException, IOException {
         JoinRequest joinRequest = notNullGetJoinRequestValidateMembership(idHolder.getId(), federatedUser);
@@ -74,6 +87,7 @@ public class JoinRequestController extends ApiController implements MembershipVa
         return newMembership;
     }
 
+    @Transactional
     @DeleteMapping("api/teams/join-requests/reject/{id}")
     public void reject(@PathVariable("id") Long id, FederatedUser federatedUser) throws MessagingException, IOException {
         JoinRequest joinRequest = notNullGetJoinRequestValidateMembership(id, federatedUser);
@@ -85,6 +99,7 @@ public class JoinRequestController extends ApiController implements MembershipVa
                 joinRequest.getTeam().getUrn(), joinRequest.getPerson().getUrn(), federatedUser.getUrn());
     }
 
+    @Transactional
     @DeleteMapping("api/teams/join-requests/{id}")
     public void delete(@PathVariable("id") Long id, FederatedUser federatedUser) {
         JoinRequest joinRequest = notNullGetJoinRequest(id);
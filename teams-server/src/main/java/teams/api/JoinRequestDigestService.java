@@ -0,0 +1,127 @@
+package teams.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import teams.domain.FederatedUser;
+import teams.domain.JoinRequest;
+import teams.domain.Person;
+import teams.domain.Role;
+import teams.mail.MailBox;
+import teams.repository.JoinRequestRepository;
+import teams.repository.MembershipRepository;
+
+import javax.mail.MessagingException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Sends the admins one mail with all join requests they have not been notified of, across all their teams. These are
+ * the requests made while a team was in digest mode, also when the digest has been turned off since. The mail of an
+ * admin is written to the outbox in the same transaction that marks the requests of that mail as notified.
+ */
+@Service
+public class JoinRequestDigestService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JoinRequestDigestService.class);
+
+    private final JoinRequestRepository joinRequestRepository;
+    private final MembershipRepository membershipRepository;
+    private final MailBox mailBox;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, String> productConfig;
+
+    public JoinRequestDigestService(JoinRequestRepository joinRequestRepository,
+                                    MembershipRepository membershipRepository,
+                                    MailBox mailBox,
+                                    PlatformTransactionManager transactionManager,
+                                    @Qualifier("productConfig") Map<String, String> productConfig) {
+        this.joinRequestRepository = joinRequestRepository;
+        this.membershipRepository = membershipRepository;
+        this.mailBox = mailBox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productConfig = productConfig;
+    }
+
+    /**
+     * @return the number of digest mails
+     */
+    public int sendDigests() {
+        Map<String, Set<JoinRequest>> joinRequestsByAdmin = transactionTemplate.execute(status -> joinRequestsByAdmin());
+
+        //Each admin in its own transaction, a failing mail does not hold back the mails of the other admins
+        FederatedUser federatedUser = federatedUser();
+        int count = 0;
+        for (Map.Entry<String, Set<JoinRequest>> entry : joinRequestsByAdmin.entrySet()) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        sendDigest(new ArrayList<>(entry.getValue()), entry.getKey(), federatedUser));
+                count++;
+            } catch (RuntimeException e) {
+                LOG.error(String.format("Sending the join request digest to %s failed", entry.getKey()), e);
+            }
+        }
+        return count;
+    }
+
+    private Map<String, Set<JoinRequest>> joinRequestsByAdmin() {
+        List<JoinRequest> joinRequests = joinRequestRepository.findByNotifiedIsNullOrderByTeamId();
+        if (joinRequests.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Set<Long> teamIds = joinRequests.stream().map(joinRequest -> joinRequest.getTeam().getId()).collect(toSet());
+        Map<Long, List<String>> adminsByTeam = membershipRepository
+                .findByTeamIdInAndRoleIn(teamIds, Arrays.asList(Role.ADMIN, Role.OWNER)).stream()
+                .collect(groupingBy(membership -> membership.getTeam().getId(),
+                        mapping(membership -> membership.getPerson().getEmail(), toList())));
+
+        Map<String, Set<JoinRequest>> joinRequestsByAdmin = new TreeMap<>();
+        List<Long> withoutAdmins = new ArrayList<>();
+        joinRequests.forEach(joinRequest -> {
+            List<String> admins = adminsByTeam.getOrDefault(joinRequest.getTeam().getId(), Collections.emptyList());
+            if (admins.isEmpty()) {
+                withoutAdmins.add(joinRequest.getId());
+            }
+            admins.forEach(admin -> joinRequestsByAdmin.computeIfAbsent(admin, key -> new LinkedHashSet<>()).add(joinRequest));
+        });
+        //Nobody to notify, otherwise these requests would be picked up by every run
+        if (!withoutAdmins.isEmpty()) {
+            joinRequestRepository.markNotified(withoutAdmins, Instant.now());
+        }
+        return joinRequestsByAdmin;
+    }
+
+    private void sendDigest(List<JoinRequest> joinRequests, String admin, FederatedUser federatedUser) {
+        try {
+            mailBox.sendJoinRequestDigest(joinRequests, admin, federatedUser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (MessagingException e) {
+            throw new IllegalStateException(e);
+        }
+        //A request of a team with several admins is marked by the first of their mails, a failed mail is not retried
+        joinRequestRepository.markNotified(joinRequests.stream().map(JoinRequest::getId).collect(toList()), Instant.now());
+    }
+
+    private FederatedUser federatedUser() {
+        String productName = productConfig.get("productName");
+        return new FederatedUser(new Person(null, productName, null, false, false), productName, productConfig);
+    }
+}
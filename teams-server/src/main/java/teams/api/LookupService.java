@@ -0,0 +1,54 @@
+package teams.api;
+
+import org.springframework.stereotype.Service;
+import teams.cache.LookupCache;
+import teams.domain.Invitation;
+import teams.domain.Team;
+import teams.repository.InvitationRepository;
+import teams.repository.TeamRepository;
+
+import java.util.Optional;
+
+/**
+ * Resolves public links and invitation hashes through the {@link LookupCache}. Only the bare team and the invitation
+ * with its team are loaded, callers that create a membership must load the roster themselves.
+ */
+@Service
+public class LookupService {
+
+    private final LookupCache lookupCache;
+    private final TeamRepository teamRepository;
+    private final InvitationRepository invitationRepository;
+
+    public LookupService(LookupCache lookupCache, TeamRepository teamRepository, InvitationRepository invitationRepository) {
+        this.lookupCache = lookupCache;
+        this.teamRepository = teamRepository;
+        this.invitationRepository = invitationRepository;
+    }
+
+    public Optional<Team> teamByPublicLink(String publicLink) {
+        return lookupCache.lookup(LookupCache.PUBLIC_LINKS, publicLink,
+                () -> teamRepository.findByPublicLinkAndPublicLinkDisabled(publicLink, false),
+                Team::getId,
+                teamRepository::findTeamById,
+                team -> publicLink.equals(team.getPublicLink()) && !team.isPublicLinkDisabled());
+    }
+
+    /**
+     * Called when the public link of a team is reset, disabled or enabled. The entries of the other nodes no longer
+     * match the team and are evicted on their next use.
+     */
+    public void evictPublicLink(String publicLink) {
+        if (publicLink != null) {
+            lookupCache.evict(LookupCache.PUBLIC_LINKS, publicLink);
+        }
+    }
+
+    public Optional<Invitation> invitationByHash(String hash) {
+        return lookupCache.lookup(LookupCache.INVITATION_HASHES, hash,
+                () -> invitationRepository.findWithTeamByInvitationHash(hash),
+                Invitation::getId,
+                invitationRepository::findWithTeamById,
+                invitation -> hash.equals(invitation.getInvitationHash()));
+    }
+}
@@ -1,5 +1,7 @@
 package teams.api;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import teams.api.validations.MembershipValidator;
@@ -13,12 +15,15 @@ import java.util.Map;
 @RestController
 public class MembershipController extends ApiController implements MembershipValidator {
 
+    @Autowired
+    private TeamReadService teamReadService;
+
     @GetMapping("api/teams/memberships/{teamId}")
     public Map<String, Role> membership(@PathVariable("teamId") Long teamId, FederatedUser federatedUser) {
-        Membership membership = membership(teamById(teamId, false), federatedUser.getUrn());
-        return Collections.singletonMap("role", membership.getRole());
+        return Collections.singletonMap("role", teamReadService.role(teamId, federatedUser));
     }
 
+    @Transactional
     @PutMapping("api/teams/memberships")
     public Membership changeMembership(@Validated @RequestBody MembershipProperties membershipProperties, FederatedUser federatedUser) {
         Long id = membershipProperties.getId();
@@ -47,6 +52,7 @@ public class MembershipController extends ApiController implements MembershipVal
         return membership;
     }
 
+    @Transactional
     @PutMapping("api/teams/memberships/expiry-date")
     public Membership changeExpiryDate(@Validated @RequestBody MembershipExpiryDate membershipExpiryDate, FederatedUser federatedUser) {
         Long id = membershipExpiryDate.getId();
@@ -68,6 +74,7 @@ public class MembershipController extends ApiController implements MembershipVal
         return membership;
     }
 
+    @Transactional
     @DeleteMapping("api/teams/memberships/{id}")
     public void deleteMembership(@PathVariable("id") Long id, FederatedUser federatedUser) {
         Membership membership = membershipRepository.findById(id)
@@ -1,6 +1,7 @@
 package teams.api;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -20,26 +21,33 @@ public class PublicLinkController implements JoinRequestValidator, TeamValidator
     @Autowired
     private TeamRepository teamRepository;
 
+    @Autowired
+    private LookupService lookupService;
+
+    @Autowired
+    private TeamReadService teamReadService;
+
     @GetMapping("api/teams/public-links/{publicLink}")
     public PublicLink publicLinkInfo(@PathVariable("publicLink") String publicLink, FederatedUser federatedUser) throws IOException, MessagingException {
-        Team team = teamRepository.findByPublicLinkAndPublicLinkDisabled(publicLink, false).orElseThrow(() ->
-                new ResourceNotFoundException(String.format("PublicLink %s not found", publicLink))
-        );
-        return new PublicLink(team, federatedUser);
+        return teamReadService.publicLinkInfo(publicLink, federatedUser);
     }
 
+    @Transactional
     @PutMapping("api/teams/public-links/{publicLink}")
     public Object accept(@PathVariable("publicLink") String publicLink, FederatedUser federatedUser) throws IOException, MessagingException {
         Person person = federatedUser.getPerson();
-        Team team = teamRepository.findByPublicLinkAndPublicLinkDisabled(publicLink, false).orElseThrow(() ->
-                new ResourceNotFoundException(String.format("PublicLink %s not found", publicLink))
-        );
+        //Matched on the database instead of a cached id, the link may just have been reset or disabled. Accepting
+        //adds a membership to the team, so the roster is loaded as well
+        Team team = teamRepository.findWithMembershipsByPublicLinkAndPublicLinkDisabled(publicLink, false).orElseThrow(() -> {
+            lookupService.evictPublicLink(publicLink);
+            return new ResourceNotFoundException(String.format("PublicLink %s not found", publicLink));
+        });
 
         membershipNotAllowed(team, person);
 
         new Membership(Role.MEMBER, team, person, MembershipOrigin.PUBLIC_LINK, person.getName());
 
-        return lazyLoadTeam(teamRepository.save(team), Role.MEMBER, federatedUser);
+        return lazyLoadTeam(teamRepository.fetchTeamView(teamRepository.save(team), false), Role.MEMBER, federatedUser);
     }
 
 }
@@ -0,0 +1,135 @@
+package teams.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import teams.domain.BulkItemResult;
+import teams.domain.BulkItemStatus;
+import teams.domain.ClientResendInvitation;
+import teams.domain.FederatedUser;
+import teams.domain.Invitation;
+import teams.domain.InvitationMessage;
+import teams.domain.Membership;
+import teams.domain.MembershipProperties;
+import teams.mail.MailBox;
+import teams.repository.InvitationRepository;
+import teams.repository.MembershipRepository;
+
+import javax.mail.MessagingException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Bulk variants of the SP Dashboard operations. Each request runs in one transaction: the entities are loaded with a
+ * single select and the changes are flushed as JDBC batches (See hibernate.jdbc.batch_size). The result of each
+ * item is reported in the order of the request.
+ */
+@Service
+public class SpDashboardBulkService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpDashboardBulkService.class);
+
+    private final MembershipRepository membershipRepository;
+    private final InvitationRepository invitationRepository;
+    private final MailBox mailBox;
+    private final TransactionTemplate transactionTemplate;
+
+    public SpDashboardBulkService(MembershipRepository membershipRepository,
+                                  InvitationRepository invitationRepository,
+                                  MailBox mailBox,
+                                  PlatformTransactionManager transactionManager) {
+        this.membershipRepository = membershipRepository;
+        this.invitationRepository = invitationRepository;
+        this.mailBox = mailBox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public List<BulkItemResult> changeMemberships(List<MembershipProperties> membershipPropertiesList) {
+        return transactionTemplate.execute(status -> {
+            Map<Long, Membership> memberships = byId(membershipRepository.findAllById(
+                    ids(membershipPropertiesList, MembershipProperties::getId)), Membership::getId);
+            List<BulkItemResult> results = new ArrayList<>();
+            membershipPropertiesList.forEach(membershipProperties -> {
+                if (membershipProperties.getRole() == null) {
+                    results.add(new BulkItemResult(membershipProperties.getId(), BulkItemStatus.FAILED, "Role is required"));
+                    return;
+                }
+                Membership membership = memberships.get(membershipProperties.getId());
+                if (membership == null) {
+                    results.add(new BulkItemResult(membershipProperties.getId(), BulkItemStatus.NOT_FOUND));
+                    return;
+                }
+                membership.setRole(membershipProperties.getRole());
+                results.add(new BulkItemResult(membership.getId(), BulkItemStatus.OK));
+            });
+            membershipRepository.saveAll(memberships.values());
+            LOG.info("Changed the role of {} memberships by SP Dashboard", memberships.size());
+            return results;
+        });
+    }
+
+    public List<BulkItemResult> deleteMemberships(List<Long> membershipIds) {
+        return transactionTemplate.execute(status -> {
+            Map<Long, Membership> memberships = byId(membershipRepository.findAllById(ids(membershipIds, Function.identity())),
+                    Membership::getId);
+            List<BulkItemResult> results = membershipIds.stream()
+                    .map(id -> new BulkItemResult(id, memberships.containsKey(id) ? BulkItemStatus.OK : BulkItemStatus.NOT_FOUND))
+                    .collect(toList());
+            membershipRepository.deleteAll(memberships.values());
+            LOG.info("Deleted {} memberships by SP Dashboard", memberships.size());
+            return results;
+        });
+    }
+
+    public List<BulkItemResult> resendInvitations(List<ClientResendInvitation> resendInvitations, FederatedUser federatedUser) {
+        return transactionTemplate.execute(status -> {
+            Map<Long, Invitation> invitations = byId(invitationRepository.findAllById(
+                    ids(resendInvitations, ClientResendInvitation::getId)), Invitation::getId);
+            List<BulkItemResult> results = new ArrayList<>();
+            resendInvitations.forEach(resendInvitation -> {
+                Invitation invitation = invitations.get(resendInvitation.getId());
+                if (invitation == null) {
+                    results.add(new BulkItemResult(resendInvitation.getId(), BulkItemStatus.NOT_FOUND));
+                    return;
+                }
+                //The mail renders the new message, it is removed again when rendering fails
+                Set<InvitationMessage> invitationMessages = new HashSet<>(invitation.getInvitationMessages());
+                boolean declined = invitation.isDeclined();
+                invitation.addInvitationMessage(federatedUser.getPerson(), resendInvitation.getMessage());
+                try {
+                    //The mail is written to the outbox in this transaction
+                    mailBox.sendInviteMail(invitation, federatedUser);
+                    results.add(new BulkItemResult(invitation.getId(), BulkItemStatus.OK));
+                } catch (IOException | MessagingException e) {
+                    LOG.error(String.format("Rendering invitation mail to %s failed", invitation.getEmail()), e);
+                    invitation.restoreInvitationMessages(invitationMessages, declined);
+                    results.add(new BulkItemResult(invitation.getId(), BulkItemStatus.FAILED, e.getMessage()));
+                }
+            });
+            invitationRepository.saveAll(invitations.values());
+            LOG.info("Resent {} invitations by SP Dashboard", invitations.size());
+            return results;
+        });
+    }
+
+    //Items without an id are reported as not found
+    private <T> List<Long> ids(List<T> items, Function<T, Long> id) {
+        return items.stream().map(id).filter(Objects::nonNull).distinct().collect(toList());
+    }
+
+    private <T> Map<Long, T> byId(Iterable<T> entities, Function<T, Long> id) {
+        return StreamSupport.stream(entities.spliterator(), false).collect(toMap(id, Function.identity()));
+    }
+}
@@ -1,62 +1,72 @@
 package teams.api;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import teams.api.validations.TeamValidator;
 import teams.domain.*;
+import teams.exception.IllegalSearchParamException;
 import teams.exception.ResourceNotFoundException;
-import teams.repository.PersonRepository;
 
 import javax.mail.MessagingException;
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 
 import static java.util.stream.Collectors.toList;
 
 @RestController
 public class SpDashboardController extends ApiController implements TeamValidator {
 
-    private final PersonRepository personRepository;
-    private final Map<String, String> productConfig;
-    private final String spDashboardPersonUrn;
-    private final String spDashboardPersonEmail;
-    private final String spDashboardPersonName;
+    private static final int MAX_BULK_SIZE = 1000;
+
+    private final SpDashboardPrincipal spDashboardPrincipal;
+    private final SpDashboardBulkService spDashboardBulkService;
+    private final SpDashboardReadService spDashboardReadService;
 
     @Autowired
-    public SpDashboardController(PersonRepository personRepository,
-                                 @Qualifier("productConfig") Map<String, String> productConfig,
-                                 @Value("${sp_dashboard.person-urn}") String spDashboardPersonUrn,
-                                 @Value("${sp_dashboard.email}") String spDashboardPersonEmail,
-                                 @Value("${sp_dashboard.name}") String spDashboardPersonName) {
-        this.personRepository = personRepository;
-        this.productConfig = productConfig;
-        this.spDashboardPersonUrn = spDashboardPersonUrn;
-        this.spDashboardPersonEmail = spDashboardPersonEmail;
-        this.spDashboardPersonName = spDashboardPersonName;
+    public SpDashboardController(SpDashboardPrincipal spDashboardPrincipal,
+                                 SpDashboardBulkService spDashboardBulkService,
+                                 SpDashboardReadService spDashboardReadService) {
+        this.spDashboardPrincipal = spDashboardPrincipal;
+        this.spDashboardBulkService = spDashboardBulkService;
+        this.spDashboardReadService = spDashboardReadService;
     }
 
     @GetMapping(path = {"api/spdashboard/teams/{urn:.+}", "internal/teams/{urn:.+}"})
     public Team teamByUrn(@PathVariable("urn") String urn) {
-        Team team = teamRepository.findByUrn(urn).orElseThrow(() -> new ResourceNotFoundException(String.format("Team with urn %s does not exists", urn)));
-        team.setUrn(urn);
-        team.getInvitations()
-                //lazy load messages
-                .forEach(invitation -> invitation.getInvitationMessages().forEach(InvitationMessage::getMessage));
-        team.getMemberships().forEach(membership -> membership.getPerson().isValid());
-        return team;
+        return spDashboardReadService.teamByUrn(urn);
+    }
+
+    @GetMapping(path = {"api/spdashboard/teams/{urn:.+}/summary", "internal/teams/{urn:.+}/summary"})
+    public SpDashboardTeamSummary teamSummary(@PathVariable("urn") String urn) {
+        return spDashboardReadService.teamSummary(urn);
+    }
+
+    @GetMapping(path = {"api/spdashboard/teams/{urn:.+}/members", "internal/teams/{urn:.+}/members"})
+    public Page<SpDashboardMember> members(@PathVariable("urn") String urn,
+                                           @RequestParam(value = "page", defaultValue = "0") int page,
+                                           @RequestParam(value = "size", defaultValue = "50") int size) {
+        return spDashboardReadService.members(urn, page, size);
     }
 
+    @GetMapping(path = {"api/spdashboard/teams/{urn:.+}/invitations", "internal/teams/{urn:.+}/invitations"})
+    public Page<SpDashboardInvitation> invitations(@PathVariable("urn") String urn,
+                                                   @RequestParam(value = "page", defaultValue = "0") int page,
+                                                   @RequestParam(value = "size", defaultValue = "50") int size) {
+        return spDashboardReadService.invitations(urn, page, size);
+    }
+
+    @Transactional
     @PostMapping(path = {"api/spdashboard/teams", "internal/teams"})
     public Team createTeam(@Validated @RequestBody NewTeamProperties teamProperties) throws IOException, MessagingException {
-        return doCreateTeam(teamProperties, this.federatedUser());
+        return doCreateTeam(teamProperties, spDashboardPrincipal.federatedUser());
     }
 
+    @Transactional
     @PutMapping(path = {"api/spdashboard/memberships", "internal/memberships"})
     public ResponseEntity changeMembership(@Validated @RequestBody MembershipProperties membershipProperties) {
         Long id = membershipProperties.getId();
@@ -73,9 +83,35 @@ public class SpDashboardController extends ApiController implements TeamValidato
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    @PutMapping(path = {"api/spdashboard/memberships/bulk", "internal/memberships/bulk"})
+    public List<BulkItemResult> changeMemberships(@RequestBody List<MembershipProperties> membershipPropertiesList) {
+        validateBulkSize(membershipPropertiesList);
+        return spDashboardBulkService.changeMemberships(membershipPropertiesList);
+    }
+
+    @PostMapping(path = {"api/spdashboard/memberships/bulk-delete", "internal/memberships/bulk-delete"})
+    public List<BulkItemResult> deleteMemberships(@RequestBody List<Long> membershipIds) {
+        validateBulkSize(membershipIds);
+        return spDashboardBulkService.deleteMemberships(membershipIds);
+    }
+
+    @PutMapping(path = {"api/spdashboard/invites/bulk", "internal/invites/bulk"})
+    public List<BulkItemResult> resendInvitations(@RequestBody List<ClientResendInvitation> resendInvitations) {
+        validateBulkSize(resendInvitations);
+        return spDashboardBulkService.resendInvitations(resendInvitations, spDashboardPrincipal.federatedUser());
+    }
+
+    private void validateBulkSize(List<?> items) {
+        if (items.size() > MAX_BULK_SIZE) {
+            throw new IllegalSearchParamException(String.format("At most %s items are allowed, not %s", MAX_BULK_SIZE, items.size()));
+        }
+    }
+
+    @Transactional
     @PostMapping(path = {"api/spdashboard/invites", "internal/invites"})
     public ResponseEntity invites(@Validated @RequestBody ClientInvitation clientInvitation) {
-        Person person = this.federatedUser().getPerson();
+        FederatedUser federatedUser = spDashboardPrincipal.federatedUser();
+        Person person = federatedUser.getPerson();
 
         Team team = teamById(clientInvitation.getTeamId(), false);
 
@@ -89,31 +125,28 @@ public class SpDashboardController extends ApiController implements TeamValidato
                         null).addInvitationMessage(person, clientInvitation.getMessage()))
                 .collect(toList());
         log.info("Saving {} invitations for emails: {}", invitations.size(), String.join(",", emails));
-        saveAndSendInvitation(invitations, team, person, this.federatedUser());
+        saveAndSendInvitation(invitations, team, person, federatedUser);
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    @Transactional
     @PutMapping(path = {"api/spdashboard/invites", "internal/invites"})
     public ResponseEntity resend(@Validated @RequestBody ClientResendInvitation resendInvitation) throws IOException, MessagingException {
         Long invitationId = resendInvitation.getId();
         Invitation invitation = invitationRepository.findById(invitationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Invitation not found:" + invitationId));
-        invitation.addInvitationMessage(this.federatedUser().getPerson(), resendInvitation.getMessage());
+        FederatedUser federatedUser = spDashboardPrincipal.federatedUser();
+        invitation.addInvitationMessage(federatedUser.getPerson(), resendInvitation.getMessage());
         log.info("Resending mail to {}", invitation.getEmail());
         invitationRepository.save(invitation);
 
-        mailBox.sendInviteMail(invitation, this.federatedUser());
+        mailBox.sendInviteMail(invitation, federatedUser);
 
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
-    private FederatedUser federatedUser() {
-        Person person = personRepository.findByUrnIgnoreCase(spDashboardPersonUrn).orElseGet(() ->
-                personRepository.save(new Person(spDashboardPersonUrn, spDashboardPersonName, spDashboardPersonEmail, false, false)));
-        return new FederatedUser(person, productConfig.get("productName"), productConfig);
-    }
-
 
+    @Transactional
     @DeleteMapping(path = {"api/spdashboard/teams/{id}","internal/teams/{id}"})
     public ResponseEntity deleteTeam(@PathVariable("id") Long id) {
         Team team = teamRepository.findById(id)
@@ -125,6 +158,7 @@ public class SpDashboardController extends ApiController implements TeamValidato
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    @Transactional
     @DeleteMapping(path = {"api/spdashboard/memberships/{membershipId}","internal/{membershipId}"})
     public ResponseEntity deleteMembership(@PathVariable("membershipId") Long membershipId) {
         Membership membership = membershipRepository.findById(membershipId)
@@ -0,0 +1,87 @@
+package teams.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import teams.domain.FederatedUser;
+import teams.domain.Person;
+import teams.repository.PersonRepository;
+
+import java.util.Map;
+
+/**
+ * The service principal on whose behalf the SP Dashboard API creates teams and sends invitations. The {@link Person}
+ * is looked up - or created - on first use and held until {@link #refresh()}. The person is never removed by the
+ * orphan cleanup or the deprovisioning of users, so there is no check per call that it still exists.
+ * <p>
+ * The person is resolved in its own transaction, a failed create by two nodes at once does not roll back the
+ * transaction of the handler that first uses the principal.
+ */
+@Component
+public class SpDashboardPrincipal {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpDashboardPrincipal.class);
+
+    private final PersonRepository personRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, String> productConfig;
+    private final String urn;
+    private final String email;
+    private final String name;
+
+    private volatile FederatedUser federatedUser;
+
+    public SpDashboardPrincipal(PersonRepository personRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Qualifier("productConfig") Map<String, String> productConfig,
+                                @Value("${sp_dashboard.person-urn}") String urn,
+                                @Value("${sp_dashboard.email}") String email,
+                                @Value("${sp_dashboard.name}") String name) {
+        this.personRepository = personRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.productConfig = productConfig;
+        this.urn = urn;
+        this.email = email;
+        this.name = name;
+    }
+
+    public FederatedUser federatedUser() {
+        FederatedUser result = federatedUser;
+        if (result == null) {
+            synchronized (this) {
+                result = federatedUser;
+                if (result == null) {
+                    result = new FederatedUser(person(), productConfig.get("productName"), productConfig);
+                    federatedUser = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Forgets the principal, e.g. after its person has been removed. It is resolved again on next use.
+     */
+    public void refresh() {
+        federatedUser = null;
+    }
+
+    private Person person() {
+        try {
+            return transactionTemplate.execute(status -> personRepository.findByUrnIgnoreCase(urn).orElseGet(() -> {
+                LOG.info("Creating the SP Dashboard person {}", urn);
+                return personRepository.save(new Person(urn, name, email, false, false));
+            }));
+        } catch (DataIntegrityViolationException e) {
+            //Another node created the person in the meantime
+            return transactionTemplate.execute(status -> personRepository.findByUrnIgnoreCase(urn)).orElseThrow(() -> e);
+        }
+    }
+}
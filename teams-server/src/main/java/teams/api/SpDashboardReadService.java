@@ -0,0 +1,82 @@
+package teams.api;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import teams.domain.Invitation;
+import teams.domain.Role;
+import teams.domain.SpDashboardInvitation;
+import teams.domain.SpDashboardMember;
+import teams.domain.SpDashboardTeamSummary;
+import teams.domain.Team;
+import teams.exception.IllegalSearchParamException;
+import teams.exception.ResourceNotFoundException;
+import teams.repository.InvitationRepository;
+import teams.repository.MembershipRepository;
+import teams.repository.TeamRepository;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The reads of the SP Dashboard API, each in one read-only transaction.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SpDashboardReadService {
+
+    private static final int MAX_PAGE_SIZE = 250;
+    private static final List<Role> ADMIN_ROLES = Arrays.asList(Role.ADMIN, Role.OWNER);
+
+    private final TeamRepository teamRepository;
+    private final MembershipRepository membershipRepository;
+    private final InvitationRepository invitationRepository;
+
+    public SpDashboardReadService(TeamRepository teamRepository,
+                                  MembershipRepository membershipRepository,
+                                  InvitationRepository invitationRepository) {
+        this.teamRepository = teamRepository;
+        this.membershipRepository = membershipRepository;
+        this.invitationRepository = invitationRepository;
+    }
+
+    public Team teamByUrn(String urn) {
+        Team team = teamRepository.findByUrn(urn).orElseThrow(() -> teamNotFound(urn));
+        team.setUrn(urn);
+        teamRepository.findWithInvitationsById(team.getId());
+        return team;
+    }
+
+    public SpDashboardTeamSummary teamSummary(String urn) {
+        SpDashboardTeamSummary summary = teamRepository.findSpDashboardTeamSummaryByUrn(urn, notExpiredSince())
+                .orElseThrow(() -> teamNotFound(urn));
+        summary.admins(membershipRepository.findAdminMembersByTeamIdAndRoleIn(summary.getId(), ADMIN_ROLES));
+        return summary;
+    }
+
+    public Page<SpDashboardMember> members(String urn, int page, int size) {
+        Long teamId = teamRepository.findIdByUrn(urn).orElseThrow(() -> teamNotFound(urn));
+        return membershipRepository.findSpDashboardMembersByTeamId(teamId, pageRequest(page, size));
+    }
+
+    public Page<SpDashboardInvitation> invitations(String urn, int page, int size) {
+        Long teamId = teamRepository.findIdByUrn(urn).orElseThrow(() -> teamNotFound(urn));
+        return invitationRepository.findSpDashboardInvitationsByTeamId(teamId, notExpiredSince(), pageRequest(page, size));
+    }
+
+    private PageRequest pageRequest(int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalSearchParamException(String.format("Invalid page %s or size %s", page, size));
+        }
+        return PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private long notExpiredSince() {
+        return System.currentTimeMillis() - Invitation.EXPIRY_MILLIS;
+    }
+
+    private ResourceNotFoundException teamNotFound(String urn) {
+        return new ResourceNotFoundException(String.format("Team with urn %s does not exists", urn));
+    }
+}
@@ -1,8 +1,10 @@
 package teams.api;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
@@ -10,7 +12,6 @@ import org.springframework.web.bind.annotation.*;
 import teams.api.validations.TeamValidator;
 import teams.domain.*;
 import teams.exception.IllegalSearchParamException;
-import teams.exception.NotAllowedException;
 import teams.exception.ResourceNotFoundException;
 
 import javax.mail.MessagingException;
@@ -19,9 +20,8 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
-import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
 
 
@@ -31,61 +31,28 @@ public class TeamController extends ApiController implements TeamValidator {
     public static final int AUTOCOMPLETE_LIMIT = 11;
     private TeamMatcher teamMatcher = new TeamMatcher();
 
+    @Autowired
+    private TeamReadService teamReadService;
+
     @GetMapping("api/teams/my-teams")
     public MyTeams myTeams(FederatedUser federatedUser) {
-        List<Team> teams = teamRepository
-                .findByMembershipsUrnPersonIgnoreCase(federatedUser.getUrn());
-        List<TeamSummary> teamSummaries = teams
-                .stream()
-                .map(team -> new TeamSummary(team, federatedUser, false))
-                .collect(toList());
-        List<Long> teamIds = teamSummaries.stream().filter(this::isAllowedToAcceptJoinRequest)
-                .map(TeamSummary::getId).collect(toList());
-
-        List<JoinRequest> myJoinRequests = joinRequestRepository.findByPerson(federatedUser.getPerson());
-
-        if (!teamIds.isEmpty()) {
-            invitationsCountFromQuery(invitationRepository.countInvitationsByTeamId(teamIds), teamSummaries);
-            joinRequestsCountFromQuery(joinRequestRepository.countJoinRequestsByTeamId(teamIds), teamSummaries);
-        }
-
-        List<PendingJoinRequest> pendingJoinRequests = myJoinRequests.stream()
-                .map(PendingJoinRequest::new)
-                .collect(toList());
-
-        return new MyTeams(pendingJoinRequests, teamSummaries);
-
+        return teamReadService.myTeams(federatedUser);
     }
 
     @GetMapping("api/teams/teams/{id}")
     public Object teamById(@PathVariable("id") Long id, HttpServletRequest httpServletRequest, FederatedUser federatedUser) {
-        Team team = teamById(id, true);
-        assertNotNull("Team", team, id);
         boolean superAdmin = federatedUser.getPerson().isSuperAdmin() && Boolean.parseBoolean(httpServletRequest.getHeader(ADMIN_HEADER));
-        Optional<Membership> membershipOptional = superAdmin ? Optional.of(new Membership()) : team.member(federatedUser.getUrn());
-        if (!membershipOptional.isPresent() && !team.isViewable() && !superAdmin) {
-            throw new NotAllowedException(String.format("Team %s is private and %s is not a member", id, federatedUser.getUrn()));
-        }
-        return membershipOptional.map(membership -> lazyLoadTeam(team, membership.getRole(), federatedUser))
-                .orElse(new TeamSummary(team, federatedUser, true));
+        return teamReadService.teamById(id, superAdmin, federatedUser);
     }
 
     @GetMapping("api/teams/teams/hash/{hash}")
     public Object teamByHash(@PathVariable("hash") String hash, FederatedUser federatedUser) {
-        Invitation invitation = invitationRepository.findFirstByInvitationHash(hash).orElseThrow(() -> {
-            log.info("Invitation not found with hash {} for user {}", hash, federatedUser.getPerson().getEmail());
-            return new ResourceNotFoundException(format("Invitation %s not found", hash));
-        });
-        return lazyLoadTeam(invitation.getTeam(), Role.MEMBER, federatedUser);
+        return teamReadService.teamByHash(hash, federatedUser);
     }
 
     @GetMapping("api/teams/teams/public-link/{public-link}")
     public Object teamByPublicLink(@PathVariable("public-link") String publicLink,  FederatedUser federatedUser) {
-        Team team = teamRepository.findByPublicLinkAndPublicLinkDisabled(publicLink, false).orElseThrow(() -> {
-            log.info("Team not found with public link {} for user {}", publicLink, federatedUser.getPerson().getEmail());
-            return new ResourceNotFoundException(format("Team %s not found", publicLink));
-        });
-        return lazyLoadTeam(team, Role.MEMBER, federatedUser);
+        return teamReadService.teamByPublicLink(publicLink, federatedUser);
     }
 
     @GetMapping("api/teams/teamIdFromUrn/{urn:.+}")
@@ -125,6 +92,7 @@ public class TeamController extends ApiController implements TeamValidator {
         return !urns.isEmpty() || !names.isEmpty();
     }
 
+    @Transactional
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("api/teams/teams")
     public Object createTeam(@Validated @RequestBody NewTeamProperties teamProperties, FederatedUser federatedUser) throws IOException, MessagingException {
@@ -134,51 +102,61 @@ public class TeamController extends ApiController implements TeamValidator {
         Membership membership = new Membership(Role.ADMIN, team, person, MembershipOrigin.INITIAL_ADMIN, person.getName());
         membershipRepository.save(membership);
 
-        return lazyLoadTeam(team, membership.getRole(), federatedUser);
+        return teamView(team, membership.getRole(), federatedUser);
     }
 
+    @Transactional
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("api/teams/teams")
     public Object updateTeam(@Validated @RequestBody TeamProperties teamProperties, FederatedUser federatedUser) {
-        Team team = teamById(teamProperties.getId(), false);
+        Team team = teamById(teamProperties.getId(), true);
 
         String federatedUserUrn = federatedUser.getUrn();
         Role roleOfLoggedInPerson = membership(team, federatedUserUrn).getRole();
         onlyAdminAllowed(roleOfLoggedInPerson, federatedUser, team, "update");
 
         boolean publicLinkDisabled = team.isPublicLinkDisabled();
+        String publicLink = team.getPublicLink();
 
         team.setDescription(teamProperties.getDescription());
         team.setViewable(teamProperties.isViewable());
         team.setPersonalNote(teamProperties.getPersonalNote());
         team.setPublicLinkDisabled(teamProperties.isPublicLinkDisabled());
         team.setHideMembers(teamProperties.isHideMembers());
+        team.setJoinRequestDigest(teamProperties.isJoinRequestDigest());
 
         if (teamProperties.isPublicLinkDisabled()) {
             team.setPublicLink(null);
         } else if (publicLinkDisabled && !teamProperties.isPublicLinkDisabled()) {
             team.resetPublicLink();
         }
+        if (publicLinkDisabled != team.isPublicLinkDisabled() || !Objects.equals(publicLink, team.getPublicLink())) {
+            lookupService.evictPublicLink(publicLink);
+        }
 
         log.info("Team {} updated by {}", team.getUrn(), federatedUserUrn);
 
-        return lazyLoadTeam(teamRepository.save(team), roleOfLoggedInPerson, federatedUser);
+        return teamView(teamRepository.save(team), roleOfLoggedInPerson, federatedUser);
     }
 
+    @Transactional
     @PutMapping("api/teams/teams/reset-public-link/{id}")
     public Object resetPublicLink(@PathVariable("id") Long id, FederatedUser federatedUser) {
-        Team team = teamById(id, false);
+        Team team = teamById(id, true);
 
         String federatedUserUrn = federatedUser.getUrn();
         Role roleOfLoggedInPerson = membership(team, federatedUserUrn).getRole();
         onlyAdminAllowed(roleOfLoggedInPerson, federatedUser, team, "resetPublicLink");
 
+        String publicLink = team.getPublicLink();
         team.resetPublicLink();
+        lookupService.evictPublicLink(publicLink);
         log.info("Team {} resetPublicLink by {}", team.getUrn(), federatedUserUrn);
 
-        return lazyLoadTeam(teamRepository.save(team), roleOfLoggedInPerson, federatedUser);
+        return teamView(teamRepository.save(team), roleOfLoggedInPerson, federatedUser);
     }
 
+    @Transactional
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("api/teams/teams/{id}")
     public void deleteTeam(@PathVariable("id") Long id, FederatedUser federatedUser) {
@@ -0,0 +1,137 @@
+package teams.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import teams.api.validations.JoinRequestValidator;
+import teams.api.validations.TeamValidator;
+import teams.domain.*;
+import teams.exception.NotAllowedException;
+import teams.exception.ResourceNotFoundException;
+import teams.repository.InvitationRepository;
+import teams.repository.JoinRequestRepository;
+import teams.repository.MembershipRepository;
+import teams.repository.TeamRepository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The reads of the team views. Each read runs in one read-only transaction and returns a view that is fully loaded
+ * - see TeamRepository#fetchTeamView - so the connection is released before the response is serialized.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TeamReadService implements TeamValidator, JoinRequestValidator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TeamReadService.class);
+
+    private final TeamRepository teamRepository;
+    private final MembershipRepository membershipRepository;
+    private final InvitationRepository invitationRepository;
+    private final JoinRequestRepository joinRequestRepository;
+    private final LookupService lookupService;
+
+    public TeamReadService(TeamRepository teamRepository,
+                           MembershipRepository membershipRepository,
+                           InvitationRepository invitationRepository,
+                           JoinRequestRepository joinRequestRepository,
+                           LookupService lookupService) {
+        this.teamRepository = teamRepository;
+        this.membershipRepository = membershipRepository;
+        this.invitationRepository = invitationRepository;
+        this.joinRequestRepository = joinRequestRepository;
+        this.lookupService = lookupService;
+    }
+
+    public MyTeams myTeams(FederatedUser federatedUser) {
+        List<Team> teams = teamRepository
+                .findByMembershipsUrnPersonIgnoreCase(federatedUser.getUrn());
+        List<TeamSummary> teamSummaries = teams
+                .stream()
+                .map(team -> new TeamSummary(team, federatedUser, false))
+                .collect(toList());
+        List<Long> teamIds = teamSummaries.stream().filter(this::isAllowedToAcceptJoinRequest)
+                .map(TeamSummary::getId).collect(toList());
+
+        List<JoinRequest> myJoinRequests = joinRequestRepository.findByPerson(federatedUser.getPerson());
+
+        if (!teamIds.isEmpty()) {
+            invitationsCountFromQuery(invitationRepository.countInvitationsByTeamId(teamIds), teamSummaries);
+            joinRequestsCountFromQuery(joinRequestRepository.countJoinRequestsByTeamId(teamIds), teamSummaries);
+        }
+
+        List<PendingJoinRequest> pendingJoinRequests = myJoinRequests.stream()
+                .map(PendingJoinRequest::new)
+                .collect(toList());
+
+        return new MyTeams(pendingJoinRequests, teamSummaries);
+    }
+
+    public Object teamById(Long id, boolean superAdmin, FederatedUser federatedUser) {
+        Team team = teamWithPersons(id);
+        Optional<Membership> membershipOptional = superAdmin ? Optional.of(new Membership()) : team.member(federatedUser.getUrn());
+        if (!membershipOptional.isPresent() && !team.isViewable() && !superAdmin) {
+            throw new NotAllowedException(String.format("Team %s is private and %s is not a member", id, federatedUser.getUrn()));
+        }
+        return membershipOptional.map(membership -> teamView(team, membership.getRole(), federatedUser))
+                .orElse(new TeamSummary(team, federatedUser, true));
+    }
+
+    public Object teamByHash(String hash, FederatedUser federatedUser) {
+        Invitation invitation = lookupService.invitationByHash(hash).orElseThrow(() -> {
+            LOG.info("Invitation not found with hash {} for user {}", hash, federatedUser.getPerson().getEmail());
+            return new ResourceNotFoundException(format("Invitation %s not found", hash));
+        });
+        return teamView(teamWithPersons(invitation.getTeam().getId()), Role.MEMBER, federatedUser);
+    }
+
+    public Object teamByPublicLink(String publicLink, FederatedUser federatedUser) {
+        Team team = lookupService.teamByPublicLink(publicLink).orElseThrow(() -> {
+            LOG.info("Team not found with public link {} for user {}", publicLink, federatedUser.getPerson().getEmail());
+            return new ResourceNotFoundException(format("Team %s not found", publicLink));
+        });
+        return teamView(teamWithPersons(team.getId()), Role.MEMBER, federatedUser);
+    }
+
+    public PublicLink publicLinkInfo(String publicLink, FederatedUser federatedUser) {
+        Team team = lookupService.teamByPublicLink(publicLink).orElseThrow(() ->
+                new ResourceNotFoundException(String.format("PublicLink %s not found", publicLink))
+        );
+        return new PublicLink(team, membershipRepository.findByTeamIdAndRoleInOrPersonId(team.getId(),
+                Arrays.asList(Role.ADMIN, Role.OWNER), federatedUser.getPerson().getId()), federatedUser);
+    }
+
+    public Role role(Long teamId, FederatedUser federatedUser) {
+        Team team = teamRepository.findById(teamId).orElseThrow(() -> new ResourceNotFoundException("Team not found:" + teamId));
+        return team.member(federatedUser.getUrn())
+                .orElseThrow(() -> new NotAllowedException(format
+                        ("Member %s is not a member of team %s.", federatedUser.getUrn(), team.getUrn())))
+                .getRole();
+    }
+
+    public JoinRequest joinRequest(Long id, FederatedUser federatedUser) {
+        JoinRequest joinRequest = joinRequestRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("JoinRequest not found:" + id));
+        validateJoinRequest(joinRequest, federatedUser);
+        return joinRequest;
+    }
+
+    private Team teamWithPersons(Long id) {
+        Team team = teamRepository.findFirstById(id);
+        if (team == null) {
+            throw new ResourceNotFoundException(String.format("Team %s does not exist", id));
+        }
+        return team;
+    }
+
+    private Object teamView(Team team, Role role, FederatedUser federatedUser) {
+        teamRepository.fetchTeamView(team, !isTeamDetailsSummary(role, federatedUser));
+        return lazyLoadTeam(team, role, federatedUser);
+    }
+}
@@ -9,9 +9,16 @@ import java.util.Random;
 public interface HashGenerator {
 
     default String generateHash() {
-        return generateHash(128, "UTF-8");
+        return generateHash(128);
     }
 
+    default String generateHash(int length) {
+        return TokenGenerator.generateToken(length);
+    }
+
+    /**
+     * The original hash of the applied V22 migration, which must stay unchanged. New code uses generateHash(int).
+     */
     default String generateHash(int length, String encoding) {
         Random secureRandom = new SecureRandom();
         byte[] aesKey = new byte[length];
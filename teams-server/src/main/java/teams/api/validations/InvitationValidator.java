@@ -5,22 +5,32 @@ import org.springframework.util.StringUtils;
 import teams.domain.*;
 import teams.exception.*;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.StringReader;
 import java.time.Instant;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
-import static java.util.stream.Collectors.toList;
-
 public interface InvitationValidator {
 
+    Pattern CSV_SEPARATOR = Pattern.compile("[,;]");
+
+    //Whitespace, CSV quotes and byte order marks
+    Pattern NOT_IN_EMAIL = Pattern.compile("[\\s\"\\uFEFF]");
+
     default void validateClientInvitation(ClientInvitation clientInvitation) {
         List<String> emails = clientInvitation.getEmails();
         if (CollectionUtils.isEmpty(emails) && !StringUtils.hasText(clientInvitation.getCsvEmails())) {
             throw new IllegalInviteException("Either emails or file with emails is required");
         }
+        validateExpiryDate(clientInvitation);
+    }
+
+    default void validateExpiryDate(ClientInvitation clientInvitation) {
         Instant expiryDate = clientInvitation.getExpiryDate();
         Instant now = Instant.now();
         if (expiryDate != null && now.isAfter(expiryDate)) {
@@ -29,10 +39,14 @@ public interface InvitationValidator {
     }
 
     default void validateInvitation(Invitation invitation, Person person) {
+        validateInvitation(invitation, invitation.getTeam().member(person.getUrn()).isPresent());
+    }
+
+    default void validateInvitation(Invitation invitation, boolean alreadyMember) {
         if (invitation.expired()) {
             throw new InvitationExpiredException();
         }
-        if (invitation.isAccepted() || invitation.getTeam().member(person.getUrn()).isPresent()) {
+        if (invitation.isAccepted() || alreadyMember) {
             throw new InvitationAlreadyAcceptedException();
         }
         if (invitation.isDeclined()) {
@@ -80,16 +94,33 @@ public interface InvitationValidator {
 
     default List<String> emails(ClientInvitation clientInvitation) throws IOException {
         validateClientInvitation(clientInvitation);
-        List<String> fromFile = StringUtils.hasText(clientInvitation.getCsvEmails()) ?
-                Stream.of(clientInvitation.getCsvEmails().split("[,\\n\\r]"))
-                        .map(email -> email.trim().replaceAll("[\\t\\n\\r]", ""))
-                        .filter(email -> Invitation.emailPattern.matcher(email).matches())
-                        .collect(toList()) : Collections.emptyList();
-        List<String> fromInput = clientInvitation.getEmails();
-        fromInput.addAll(fromFile);
-        return fromInput;
+        List<String> emails = CollectionUtils.isEmpty(clientInvitation.getEmails()) ?
+                new ArrayList<>() : new ArrayList<>(clientInvitation.getEmails());
+        if (StringUtils.hasText(clientInvitation.getCsvEmails())) {
+            try (BufferedReader reader = new BufferedReader(new StringReader(clientInvitation.getCsvEmails()))) {
+                csvEmails(reader).filter(this::validEmail).forEach(emails::add);
+            }
+        }
+        return emails;
+    }
 
+    /**
+     * Lazily parses the addresses of a CSV or comma separated list, line by line. Entries are normalised, but not
+     * validated.
+     */
+    default Stream<String> csvEmails(BufferedReader reader) {
+        return reader.lines()
+                .flatMap(CSV_SEPARATOR::splitAsStream)
+                .map(this::normalizeEmail)
+                .filter(email -> !email.isEmpty());
     }
 
+    default String normalizeEmail(String email) {
+        return NOT_IN_EMAIL.matcher(email).replaceAll("");
+    }
+
+    default boolean validEmail(String email) {
+        return Invitation.emailPattern.matcher(email).matches();
+    }
 
 }
@@ -26,20 +26,21 @@ public interface TeamValidator {
         return federatedUserUrn;
     }
 
+    /**
+     * The associations of the team must be loaded upfront - see TeamRepository#fetchTeamView - as serialization
+     * does not trigger lazy loading.
+     */
     default Object lazyLoadTeam(Team team, Role role, FederatedUser user) {
-        boolean superAdmin = user.getPerson().isSuperAdmin();
-        team.getMemberships().forEach(membership -> membership.getPerson().isValid());
-        if (Role.MEMBER.equals(role) && !superAdmin) {
+        if (isTeamDetailsSummary(role, user)) {
             return new TeamDetailsSummary(team, user);
         }
-        team.getInvitations()
-                //lazy load messages
-                .forEach(invitation -> invitation.getInvitationMessages().forEach(InvitationMessage::getMessage));
-        team.getJoinRequests().forEach(joinRequest -> joinRequest.getPerson().isValid());
-        team.getExternalTeams().forEach(ExternalTeam::getIdentifier);
         return team;
     }
 
+    default boolean isTeamDetailsSummary(Role role, FederatedUser user) {
+        return Role.MEMBER.equals(role) && !user.getPerson().isSuperAdmin();
+    }
+
     default boolean isAllowedToAcceptJoinRequest(TeamSummary teamSummary) {
         return Role.ADMIN.equals(teamSummary.getRole()) || Role.MANAGER.equals(teamSummary.getRole())
                 || Role.OWNER.equals(teamSummary.getRole());
@@ -0,0 +1,24 @@
+package teams.api.validations;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Generates the random tokens used for invitation hashes and public links. The {@link SecureRandom} is thread-safe and
+ * seeded once, and tokens are encoded with the URL-safe Base64 alphabet without padding so they can be used in links
+ * as-is.
+ */
+public final class TokenGenerator {
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private TokenGenerator() {
+    }
+
+    public static String generateToken(int numberOfBytes) {
+        byte[] bytes = new byte[numberOfBytes];
+        SECURE_RANDOM.nextBytes(bytes);
+        return ENCODER.encodeToString(bytes);
+    }
+}
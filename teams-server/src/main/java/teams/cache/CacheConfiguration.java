@@ -0,0 +1,123 @@
+package teams.cache;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ObjectUtils;
+import teams.domain.ExternalTeam;
+import teams.domain.Person;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Local second-level and query cache for the read-mostly entities. Every node has its own cache, so in a
+ * load-balanced topology the time-to-live bounds how long a node may serve data that was changed on another node.
+ * Teams and memberships decide who may access a team - the viewable, hide-members and public link settings of a team,
+ * the memberships e.g. through VOOT - so they are never cached: a change on one node must not be ignored by another.
+ */
+@Configuration
+public class CacheConfiguration {
+
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    public static final List<String> ENTITY_REGIONS = Arrays.asList(
+            Person.class.getName(),
+            ExternalTeam.class.getName()
+    );
+
+    @Bean
+    public CacheManager secondLevelCacheManager(@Value("${second-level-cache.time-to-live-seconds}") long timeToLiveSeconds,
+                                                @Value("${second-level-cache.max-entries}") long maxEntries,
+                                                @Value("${lookup-cache.time-to-live-seconds}") long lookupTimeToLiveSeconds,
+                                                @Value("${lookup-cache.not-found-time-to-live-seconds}") long notFoundTimeToLiveSeconds,
+                                                @Value("${lookup-cache.max-entries}") long lookupMaxEntries) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        //Unique URI as every application context - e.g. in tests - needs its own set of regions
+        URI uri = URI.create("teams-second-level-cache-" + ObjectUtils.getIdentityHexString(this));
+        CacheManager cacheManager = provider.getCacheManager(uri, new DefaultConfiguration(getClass().getClassLoader()));
+
+        Duration timeToLive = Duration.ofSeconds(timeToLiveSeconds);
+        ENTITY_REGIONS.forEach(region -> cacheManager.createCache(region, configuration(maxEntries, timeToLive)));
+        cacheManager.createCache(QUERY_RESULTS_REGION, configuration(maxEntries, timeToLive));
+        //The timestamps must outlive the cached query results, otherwise stale results are considered up-to-date
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, configuration(maxEntries, null));
+
+        //Not used by Hibernate, but by the LookupCache for the public links and invitation hashes
+        ExpiryPolicy<Object, Object> lookupExpiry = new LookupExpiryPolicy(
+                Duration.ofSeconds(lookupTimeToLiveSeconds), Duration.ofSeconds(notFoundTimeToLiveSeconds));
+        LookupCache.REGIONS.forEach(region -> cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(lookupMaxEntries))
+                        .withExpiry(lookupExpiry))));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager,
+                                                                    @Value("${second-level-cache.enabled}") boolean enabled) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            properties.put(AvailableSettings.GENERATE_STATISTICS, enabled);
+            if (enabled) {
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+                properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+            }
+        };
+    }
+
+    private javax.cache.configuration.Configuration<Object, Object> configuration(long maxEntries, Duration timeToLive) {
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries));
+        if (timeToLive != null) {
+            builder = builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive));
+        }
+        return Eh107Configuration.fromEhcacheCacheConfiguration(builder);
+    }
+
+    private static class LookupExpiryPolicy implements ExpiryPolicy<Object, Object> {
+
+        private final Duration found;
+        private final Duration notFound;
+
+        private LookupExpiryPolicy(Duration found, Duration notFound) {
+            this.found = found;
+            this.notFound = notFound;
+        }
+
+        @Override
+        public Duration getExpiryForCreation(Object key, Object value) {
+            return LookupCache.NOT_FOUND.equals(value) ? notFound : found;
+        }
+
+        @Override
+        public Duration getExpiryForAccess(Object key, Supplier<?> value) {
+            //Unchanged
+            return null;
+        }
+
+        @Override
+        public Duration getExpiryForUpdate(Object key, Supplier<?> oldValue, Object newValue) {
+            return getExpiryForCreation(key, newValue);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package teams.cache;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "secondlevelcache")
+public class CacheStatisticsEndpoint {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheStatisticsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        if (!statistics.isStatisticsEnabled()) {
+            return result;
+        }
+        result.put("hitCount", statistics.getSecondLevelCacheHitCount());
+        result.put("missCount", statistics.getSecondLevelCacheMissCount());
+        result.put("putCount", statistics.getSecondLevelCachePutCount());
+        result.put("queryCacheHitCount", statistics.getQueryCacheHitCount());
+        result.put("queryCacheMissCount", statistics.getQueryCacheMissCount());
+        result.put("queryCachePutCount", statistics.getQueryCachePutCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        CacheConfiguration.ENTITY_REGIONS.forEach(region -> regions.put(region, region(statistics.getCacheRegionStatistics(region))));
+        regions.put(CacheConfiguration.QUERY_RESULTS_REGION,
+                region(statistics.getCacheRegionStatistics(CacheConfiguration.QUERY_RESULTS_REGION)));
+        result.put("regions", regions);
+        return result;
+    }
+
+    private Map<String, Object> region(CacheRegionStatistics regionStatistics) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (regionStatistics != null) {
+            result.put("hitCount", regionStatistics.getHitCount());
+            result.put("missCount", regionStatistics.getMissCount());
+            result.put("putCount", regionStatistics.getPutCount());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+package teams.cache;
+
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, node-local cache of the ids behind the public links of teams and the hashes of invitations. Unknown keys
+ * are cached as well - with a shorter time-to-live (See CacheConfiguration) - so crawlers and mistyped links do not
+ * hit the database on every request. A cached id may be stale, therefore the entity it refers to is validated against
+ * the key and the entry is evicted when it no longer matches.
+ */
+@Component
+public class LookupCache {
+
+    public static final String PUBLIC_LINKS = "public-link-lookups";
+    public static final String INVITATION_HASHES = "invitation-hash-lookups";
+
+    public static final List<String> REGIONS = Arrays.asList(PUBLIC_LINKS, INVITATION_HASHES);
+
+    static final Long NOT_FOUND = -1L;
+
+    private final CacheManager secondLevelCacheManager;
+
+    public LookupCache(CacheManager secondLevelCacheManager) {
+        this.secondLevelCacheManager = secondLevelCacheManager;
+    }
+
+    public <T> Optional<T> lookup(String region, String key, Supplier<Optional<T>> byKey, Function<T, Long> id,
+                                  Function<Long, Optional<T>> byId, Predicate<T> matchesKey) {
+        Cache<Object, Object> cache = secondLevelCacheManager.getCache(region);
+        Long cachedId = (Long) cache.get(key);
+        if (cachedId == null) {
+            Optional<T> entity = byKey.get();
+            cache.put(key, entity.map(id).orElse(NOT_FOUND));
+            return entity;
+        }
+        if (NOT_FOUND.equals(cachedId)) {
+            return Optional.empty();
+        }
+        Optional<T> entity = byId.apply(cachedId).filter(matchesKey);
+        if (!entity.isPresent()) {
+            cache.remove(key);
+        }
+        return entity;
+    }
+
+    public void evict(String region, String key) {
+        secondLevelCacheManager.getCache(region).remove(key);
+    }
+
+    public void clear() {
+        REGIONS.forEach(region -> secondLevelCacheManager.getCache(region).clear());
+    }
+}
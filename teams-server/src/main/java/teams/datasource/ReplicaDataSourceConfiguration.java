@@ -0,0 +1,94 @@
+package teams.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Optional read replica, enabled when replica.datasource.url is configured. The DataSource of the application routes
+ * between the primary - configured in spring.datasource - and the replica, see ReplicaRoutingDataSource. The pools
+ * themselves are no autowire candidates, so Flyway, the JDBC session store and the health check use the routing
+ * DataSource, which outside read-only requests is the primary.
+ */
+@Configuration
+@ConditionalOnProperty("replica.datasource.url")
+public class ReplicaDataSourceConfiguration {
+
+    @Value("${replica.datasource.url}")
+    private String url;
+
+    @Value("${replica.datasource.username}")
+    private String username;
+
+    @Value("${replica.datasource.password}")
+    private String password;
+
+    private final Environment environment;
+
+    public ReplicaDataSourceConfiguration(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Bean(autowireCandidate = false)
+    public DataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource)).orElse(dataSource);
+    }
+
+    @Bean(autowireCandidate = false)
+    public DataSource replicaDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(dataSourceProperties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return Binder.get(environment).bind("replica.datasource.hikari", Bindable.ofInstance(dataSource)).orElse(dataSource);
+    }
+
+    @Bean
+    public ReplicaLagGuard replicaLagGuard(@Value("${replica.lag-guard-seconds}") long lagGuardSeconds) {
+        return new ReplicaLagGuard(Duration.ofSeconds(lagGuardSeconds));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties,
+                                 ReplicaLagGuard replicaLagGuard,
+                                 MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(
+                primaryDataSource(dataSourceProperties),
+                replicaDataSource(dataSourceProperties),
+                replicaLagGuard,
+                meterRegistry);
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(ReplicaLagGuard replicaLagGuard,
+                                                         ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        ReplicaLagGuardTransactionManager transactionManager = new ReplicaLagGuardTransactionManager(replicaLagGuard);
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+}
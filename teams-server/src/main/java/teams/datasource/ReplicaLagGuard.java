@@ -0,0 +1,49 @@
+package teams.datasource;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import teams.domain.FederatedUser;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users committed a read-write transaction within the lag window, so their reads are served by the
+ * primary and they see their own writes. The guard is node-local: in a load-balanced topology without sticky sessions
+ * the replica lag must stay well below the window for a read on another node.
+ */
+public class ReplicaLagGuard {
+
+    private final Duration window;
+    private final Map<String, Instant> writes = new ConcurrentHashMap<>();
+
+    public ReplicaLagGuard(Duration window) {
+        this.window = window;
+    }
+
+    public void written() {
+        currentUser().ifPresent(user -> {
+            Instant now = Instant.now();
+            writes.put(user, now);
+            Instant expired = now.minus(window);
+            writes.values().removeIf(writtenAt -> writtenAt.isBefore(expired));
+        });
+    }
+
+    public boolean recentlyWritten() {
+        return currentUser()
+                .map(writes::get)
+                .map(writtenAt -> writtenAt.isAfter(Instant.now().minus(window)))
+                .orElse(false);
+    }
+
+    private Optional<String> currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        //The name of a FederatedUser is the display name
+        return Optional.ofNullable(authentication).map(auth -> auth.getPrincipal() instanceof FederatedUser ?
+                ((FederatedUser) auth.getPrincipal()).getUrn() : auth.getName());
+    }
+}
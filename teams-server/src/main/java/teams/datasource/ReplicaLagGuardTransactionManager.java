@@ -0,0 +1,41 @@
+package teams.datasource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Registers the commit of every read-write transaction with the ReplicaLagGuard of the current user.
+ * <p>
+ * Read-only transactions that may be served by the replica do not populate the second-level and query cache, so a
+ * lagging replica can not put stale persons or external teams in the cache of the node.
+ */
+public class ReplicaLagGuardTransactionManager extends JpaTransactionManager {
+
+    private final ReplicaLagGuard replicaLagGuard;
+
+    public ReplicaLagGuardTransactionManager(ReplicaLagGuard replicaLagGuard) {
+        this.replicaLagGuard = replicaLagGuard;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        if (definition.isReadOnly() && ReplicaRoutingDataSource.isReadOnlyRequest() && !replicaLagGuard.recentlyWritten()) {
+            EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+            holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+        }
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        super.doCommit(status);
+        if (!status.isReadOnly()) {
+            replicaLagGuard.written();
+        }
+    }
+}
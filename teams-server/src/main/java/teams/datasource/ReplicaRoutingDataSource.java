@@ -0,0 +1,55 @@
+package teams.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Routes the connections of read-only transactions of read-only requests to the replica. GET requests are marked as
+ * read-only, see teams.ConnectionHoldInterceptor, and their reads run in read-only services. Read-write transactions
+ * and everything outside a request, including the work of the scheduler, use the primary.
+ * <p>
+ * The lookup happens when the first statement is executed, as this DataSource is wrapped in a
+ * LazyConnectionDataSourceProxy, and by then the read-only flag of the transaction is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String READ_ONLY_REQUEST_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".READ_ONLY";
+    public static final String CONNECTIONS_METRIC = "teams.datasource.connections";
+    public static final String TARGET_TAG = "target";
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagGuard replicaLagGuard;
+    private final MeterRegistry meterRegistry;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagGuard replicaLagGuard,
+                                    MeterRegistry meterRegistry) {
+        this.replicaLagGuard = replicaLagGuard;
+        this.meterRegistry = meterRegistry;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Target target = isReadOnlyRequest() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !replicaLagGuard.recentlyWritten() ? Target.REPLICA : Target.PRIMARY;
+        meterRegistry.counter(CONNECTIONS_METRIC, TARGET_TAG, target.name().toLowerCase()).increment();
+        return target;
+    }
+
+    static boolean isReadOnlyRequest() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        return requestAttributes != null &&
+                requestAttributes.getAttribute(READ_ONLY_REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+}
@@ -9,7 +9,11 @@ public class AdminMember {
     private String email;
 
     public AdminMember(Person person) {
-        this.name = person.getName();
-        this.email = person.getEmail();
+        this(person.getName(), person.getEmail());
+    }
+
+    public AdminMember(String name, String email) {
+        this.name = name;
+        this.email = email;
     }
 }
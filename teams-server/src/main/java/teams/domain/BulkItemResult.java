@@ -0,0 +1,21 @@
+package teams.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkItemResult {
+
+    private Long id;
+    private BulkItemStatus status;
+    private String message;
+
+    public BulkItemResult(Long id, BulkItemStatus status) {
+        this(id, status, null);
+    }
+}
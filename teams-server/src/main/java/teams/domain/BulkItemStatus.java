@@ -0,0 +1,5 @@
+package teams.domain;
+
+public enum BulkItemStatus {
+    OK, NOT_FOUND, FAILED
+}
@@ -0,0 +1,25 @@
+package teams.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExternalTeamsLinkProperties {
+
+    @NotNull
+    private Long id;
+
+    private List<String> link = new ArrayList<>();
+
+    private List<String> delink = new ArrayList<>();
+
+}
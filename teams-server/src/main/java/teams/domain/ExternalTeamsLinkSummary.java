@@ -0,0 +1,22 @@
+package teams.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExternalTeamsLinkSummary {
+
+    private Long id;
+    private String urn;
+    //Only the identifiers that were actually (de-)linked by the request
+    private List<String> linked;
+    private List<String> delinked;
+    //The identifiers of all external teams linked to the team after the request
+    private List<String> externalTeams;
+
+}
@@ -126,4 +126,10 @@ public class Invitation implements HashGenerator, Serializable {
         return this;
     }
 
+    //Reverts addInvitationMessage when the mail with the new message could not be rendered
+    public void restoreInvitationMessages(Set<InvitationMessage> invitationMessages, boolean declined) {
+        this.invitationMessages.retainAll(invitationMessages);
+        this.declined = declined;
+    }
+
 }
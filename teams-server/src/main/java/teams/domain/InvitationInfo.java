@@ -29,7 +29,7 @@ public class InvitationInfo {
     private List<AdminMember> admins;
 
 
-    public InvitationInfo(Invitation invitation, FederatedUser federatedUser) {
+    public InvitationInfo(Invitation invitation, boolean alreadyMember, List<Membership> adminMemberships) {
         this.latestInvitationMessage = invitation.getLatestInvitationMessage();
         Team team = invitation.getTeam();
         this.teamId = team.getId();
@@ -42,10 +42,9 @@ public class InvitationInfo {
         this.declined = invitation.isDeclined();
         this.accepted = invitation.isAccepted();
         this.expired = invitation.expired();
-        this.alreadyMember = team.member(federatedUser.getUrn()).isPresent();
+        this.alreadyMember = alreadyMember;
         this.daysValid = invitation.daysValid();
-        this.admins = team.getMemberships().stream()
-                .filter(membership -> membership.getRole().equals(Role.ADMIN) || membership.getRole().equals(Role.OWNER))
+        this.admins = adminMemberships.stream()
                 .map(membership -> new AdminMember(membership.getPerson()))
                 .collect(Collectors.toList());
     }
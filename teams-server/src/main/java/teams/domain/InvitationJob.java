@@ -0,0 +1,86 @@
+package teams.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+@Entity(name = "invitation_jobs")
+@Getter
+@NoArgsConstructor
+public class InvitationJob implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "team_id")
+    private Long teamId;
+
+    @Column(name = "urn_person")
+    @JsonIgnore
+    private String urnPerson;
+
+    @Column
+    @Enumerated(EnumType.STRING)
+    private InvitationJobStatus status;
+
+    @Column
+    private int total;
+
+    @Column
+    private int invited;
+
+    @Column
+    private int skipped;
+
+    @Column
+    private int failed;
+
+    @Column
+    private Instant created;
+
+    @Column
+    private Instant finished;
+
+    //Heartbeat of the node running the job, see BulkInvitationService
+    @Column
+    @JsonIgnore
+    private Instant updated;
+
+    @Column
+    @JsonIgnore
+    private String node;
+
+    public InvitationJob(Long teamId, String urnPerson, String node) {
+        this.teamId = teamId;
+        this.urnPerson = urnPerson;
+        this.node = node;
+        this.status = InvitationJobStatus.PENDING;
+        this.created = Instant.now();
+        this.updated = this.created;
+    }
+
+    public void start() {
+        this.status = InvitationJobStatus.RUNNING;
+        this.updated = Instant.now();
+    }
+
+    public void progress(int total, int invited, int skipped, int failed) {
+        this.total += total;
+        this.invited += invited;
+        this.skipped += skipped;
+        this.failed += failed;
+        this.updated = Instant.now();
+    }
+
+    public void finish(boolean succeeded) {
+        this.status = succeeded ? InvitationJobStatus.FINISHED : InvitationJobStatus.FAILED;
+        this.finished = Instant.now();
+        this.updated = this.finished;
+    }
+
+}
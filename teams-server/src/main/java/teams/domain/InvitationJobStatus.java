@@ -0,0 +1,7 @@
+package teams.domain;
+
+public enum InvitationJobStatus {
+
+    PENDING, RUNNING, FINISHED, FAILED
+
+}
@@ -39,6 +39,10 @@ public class JoinRequest implements Serializable {
     @Lob
     private String message;
 
+    @Column
+    @JsonIgnore
+    private Instant notified;
+
     public JoinRequest(Person person, Team team, String message) {
         this.person = person;
         this.team = team;
@@ -0,0 +1,48 @@
+package teams.domain;
+
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Renders the Markdown of team descriptions. The commonmark parser and renderer are immutable and thread-safe, so they
+ * are shared, and the rendered HTML is cached keyed by the Markdown source.
+ */
+public final class MarkdownRenderer {
+
+    private static final int MAX_CACHED_DESCRIPTIONS = 1024;
+
+    private static final Parser parser = Parser.builder().build();
+    private static final HtmlRenderer renderer = HtmlRenderer.builder().escapeHtml(false).build();
+
+    private static final Map<String, String> cache = Collections.synchronizedMap(
+            new LinkedHashMap<String, String>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_CACHED_DESCRIPTIONS;
+                }
+            });
+
+    private MarkdownRenderer() {
+    }
+
+    public static String toHtml(String markdown) {
+        String html = cache.get(markdown);
+        if (html == null) {
+            html = render(markdown);
+            cache.put(markdown, html);
+        }
+        return html;
+    }
+
+    static String render(String markdown) {
+        String html = renderer.render(parser.parse(markdown));
+        if (html.endsWith("\n")) {
+            html = html.substring(0, html.length() - 1);
+        }
+        return html.replace("\n", "<br/>");
+    }
+}
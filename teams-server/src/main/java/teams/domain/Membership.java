@@ -2,6 +2,7 @@ package teams.domain;
 
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -38,6 +39,12 @@ public class Membership implements Serializable {
     @NotNull
     private String urnPerson;
 
+    //Generated by the database, indexed for case-insensitive lookups
+    @Column(name = "urn_person_lower", insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    @JsonIgnore
+    private String urnPersonLower;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     @JsonIgnore
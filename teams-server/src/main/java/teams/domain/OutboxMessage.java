@@ -0,0 +1,88 @@
+package teams.domain;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A rendered mail waiting to be sent. Messages are deleted once sent and kept with status {@link OutboxMessageStatus#FAILED}
+ * when all attempts are used up.
+ */
+@Entity(name = "mail_outbox")
+@Getter
+@NoArgsConstructor
+public class OutboxMessage implements Serializable {
+
+    private static final String RECIPIENT_SEPARATOR = ",";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column
+    private String recipients;
+
+    @Column
+    private String subject;
+
+    @Column
+    private String body;
+
+    @Column
+    @Enumerated(EnumType.STRING)
+    private OutboxMessageStatus status;
+
+    @Column
+    private int attempts;
+
+    @Column(name = "next_attempt")
+    private Instant nextAttempt;
+
+    @Column
+    private String claim;
+
+    @Column
+    private Instant claimed;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column
+    private Instant created;
+
+    public OutboxMessage(String subject, String body, String... recipients) {
+        this.subject = subject;
+        this.body = body;
+        this.recipients = String.join(RECIPIENT_SEPARATOR, recipients);
+        this.status = OutboxMessageStatus.PENDING;
+        this.created = Instant.now();
+        this.nextAttempt = this.created;
+    }
+
+    public String[] recipientList() {
+        return recipients.split(RECIPIENT_SEPARATOR);
+    }
+
+    /**
+     * Schedules the next attempt after initialBackoff * 2^(attempts - 1), or gives up after maxAttempts.
+     */
+    public void failed(String error, Duration initialBackoff, int maxAttempts) {
+        this.attempts++;
+        this.lastError = StringUtils.abbreviate(error, 1024);
+        this.claim = null;
+        this.claimed = null;
+        if (this.attempts >= maxAttempts) {
+            this.status = OutboxMessageStatus.FAILED;
+            this.nextAttempt = null;
+        } else {
+            this.status = OutboxMessageStatus.PENDING;
+            this.nextAttempt = Instant.now().plus(initialBackoff.multipliedBy(1L << Math.min(this.attempts - 1, 20)));
+        }
+    }
+
+}
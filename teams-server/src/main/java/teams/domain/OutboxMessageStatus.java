@@ -0,0 +1,7 @@
+package teams.domain;
+
+public enum OutboxMessageStatus {
+
+    PENDING, SENDING, FAILED
+
+}
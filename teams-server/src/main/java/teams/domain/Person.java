@@ -4,6 +4,8 @@ package teams.domain;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.*;
@@ -15,6 +17,7 @@ import java.util.*;
 import static org.springframework.util.StringUtils.hasText;
 
 @Entity(name = "persons")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @NoArgsConstructor
 public class Person implements Serializable {
@@ -27,6 +30,11 @@ public class Person implements Serializable {
     @NotNull
     private String urn;
 
+    //Generated by the database, indexed for case-insensitive lookups
+    @Column(name = "urn_lower", insertable = false, updatable = false)
+    @JsonIgnore
+    private String urnLower;
+
     @Column
     private String name;
 
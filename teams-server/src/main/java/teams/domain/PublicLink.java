@@ -14,12 +14,17 @@ public class PublicLink {
     private String description;
     private boolean alreadyMember;
 
-    public PublicLink(Team team, FederatedUser federatedUser) {
+    /**
+     * The memberships must contain the admins of the team and the membership of the user - if any - not necessarily
+     * the complete roster.
+     */
+    public PublicLink(Team team, List<Membership> memberships, FederatedUser federatedUser) {
         this.id = team.getId();
         this.name = team.getName();
         this.description = team.getDescription();
-        this.alreadyMember = team.member(federatedUser.getUrn()).isPresent();
-        this.admins = team.getMemberships().stream()
+        this.alreadyMember = memberships.stream()
+                .anyMatch(membership -> membership.getUrnPerson().equals(federatedUser.getUrn()));
+        this.admins = memberships.stream()
                 .filter(membership -> membership.getRole().equals(Role.ADMIN) || membership.getRole().equals(Role.OWNER))
                 .map(membership -> new AdminMember(membership.getPerson()))
                 .collect(Collectors.toList());
@@ -0,0 +1,32 @@
+package teams.domain;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Lock of a scheduled job, taken and released with the native queries of the SchedulerLockRepository.
+ */
+@Entity(name = "scheduler_locks")
+@Getter
+@NoArgsConstructor
+public class SchedulerLock implements Serializable {
+
+    @Id
+    private String name;
+
+    @Column
+    private String holder;
+
+    @Column(name = "locked_at")
+    private Instant lockedAt;
+
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+
+}
@@ -0,0 +1,19 @@
+package teams.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+public class SpDashboardInvitation {
+
+    private final Long id;
+    private final String email;
+    private final Role intendedRole;
+    private final Language language;
+    private final long timestamp;
+    private final Instant expiryDate;
+    private final Instant membershipExpiryDate;
+}
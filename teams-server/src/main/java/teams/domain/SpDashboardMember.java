@@ -0,0 +1,21 @@
+package teams.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+public class SpDashboardMember {
+
+    private final Long id;
+    private final Role role;
+    private final Instant created;
+    private final Instant expiryDate;
+    private final MembershipOrigin origin;
+    private final String urnPerson;
+    private final String name;
+    private final String email;
+    private final boolean guest;
+}
@@ -0,0 +1,39 @@
+package teams.domain;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read by the SP Dashboard instead of the full {@link Team}, the members and invitations are read in pages.
+ */
+@Getter
+public class SpDashboardTeamSummary {
+
+    private final Long id;
+    private final String urn;
+    private final String name;
+    private final String description;
+    private final boolean viewable;
+    private final int membershipCount;
+    private final long joinRequestsCount;
+    private final long pendingInvitationsCount;
+    private List<AdminMember> admins = new ArrayList<>();
+
+    public SpDashboardTeamSummary(Long id, String urn, String name, String description, boolean viewable,
+                                  int membershipCount, long joinRequestsCount, long pendingInvitationsCount) {
+        this.id = id;
+        this.urn = urn;
+        this.name = name;
+        this.description = description;
+        this.viewable = viewable;
+        this.membershipCount = membershipCount;
+        this.joinRequestsCount = joinRequestsCount;
+        this.pendingInvitationsCount = pendingInvitationsCount;
+    }
+
+    public void admins(List<AdminMember> admins) {
+        this.admins = admins;
+    }
+}
@@ -23,9 +23,6 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import org.commonmark.node.*;
-import org.commonmark.parser.Parser;
-import org.commonmark.renderer.html.HtmlRenderer;
 
 import static javax.persistence.CascadeType.ALL;
 
@@ -67,6 +64,10 @@ public class Team implements HashGenerator, Serializable {
     @Column
     private boolean hideMembers;
 
+    //Admins are notified of join requests in a periodic digest instead of a mail per request
+    @Column
+    private boolean joinRequestDigest;
+
     @Formula("(select count(*) from memberships m where m.team_id = id and m.role <> 'OWNER')")
     private int membershipCount;
 
@@ -89,7 +90,7 @@ public class Team implements HashGenerator, Serializable {
         this.viewable = viewable;
         this.hideMembers = hideMembers;
         this.personalNote = personalNote;
-        this.publicLink = viewable ? generateHash(32, "UTF-8") : null;
+        this.publicLink = viewable ? generateHash(32) : null;
         this.publicLinkDisabled = !viewable;
         this.created = Instant.now();
     }
@@ -106,17 +107,7 @@ public class Team implements HashGenerator, Serializable {
 
     @JsonIgnore
     public String getHtmlDescription() {
-        if (isContainsDescription()) {
-            Parser parser = Parser.builder().build();
-            Node document = parser.parse(description);
-            HtmlRenderer renderer = HtmlRenderer.builder().escapeHtml(false).build();
-            String render = renderer.render(document);
-            if (render.endsWith("\n")) {
-                render = render.substring(0, render.length() - 1);
-            }
-            return render.replaceAll("\n", "<br/>");
-        }
-        return "";
+        return isContainsDescription() ? MarkdownRenderer.toHtml(description) : "";
     }
 
     @Override
@@ -134,7 +125,7 @@ public class Team implements HashGenerator, Serializable {
 
     @JsonIgnore
     public void resetPublicLink() {
-        this.publicLink = generateHash(32, "UTF-8");
+        this.publicLink = generateHash(32);
         this.publicLinkDisabled = false;
         this.viewable = true;
     }
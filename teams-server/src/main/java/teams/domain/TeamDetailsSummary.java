@@ -15,9 +15,7 @@ public class TeamDetailsSummary extends TeamSummary {
     public TeamDetailsSummary(Team team, FederatedUser user) {
         super(team, user, false);
         this.viewable = team.isViewable();
-        team.getExternalTeams().forEach(ExternalTeam::getIdentifier);
         this.externalTeams = team.getExternalTeams();
-        team.getMemberships().forEach(membership -> membership.getPerson().isValid());
         this.memberships = team.getMemberships().stream()
                 .filter(membership -> !membership.getRole().equals(Role.OWNER))
                 .filter(membership -> !team.isHideMembers() || membership.getPerson().getId().equals(user.getPerson().getId()))
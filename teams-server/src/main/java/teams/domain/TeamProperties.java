@@ -17,4 +17,5 @@ public class TeamProperties {
     private boolean viewable;
     private boolean publicLinkDisabled;
     private boolean hideMembers;
+    private boolean joinRequestDigest;
 }
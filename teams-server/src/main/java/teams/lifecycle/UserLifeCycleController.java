@@ -1,104 +1,95 @@
 package teams.lifecycle;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
-import teams.domain.*;
-import teams.repository.*;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 public class UserLifeCycleController {
 
     private static final Logger LOG = LoggerFactory.getLogger(UserLifeCycleController.class);
 
-    private JoinRequestRepository joinRequestRepository;
-    private MembershipRepository membershipRepository;
-    private PersonRepository personRepository;
-    private TeamRepository teamRepository;
-    private InvitationRepository invitationRepository;
+    private UserLifeCycleService userLifeCycleService;
+    private ObjectMapper objectMapper;
 
     @Autowired
-    public UserLifeCycleController(InvitationRepository invitationRepository,
-                                   JoinRequestRepository joinRequestRepository,
-                                   MembershipRepository membershipRepository,
-                                   PersonRepository personRepository,
-                                   TeamRepository teamRepository) {
-        this.invitationRepository = invitationRepository;
-        this.joinRequestRepository = joinRequestRepository;
-        this.membershipRepository = membershipRepository;
-        this.personRepository = personRepository;
-        this.teamRepository = teamRepository;
+    public UserLifeCycleController(UserLifeCycleService userLifeCycleService,
+                                   ObjectMapper objectMapper) {
+        this.userLifeCycleService = userLifeCycleService;
+        this.objectMapper = objectMapper;
     }
 
     @RequestMapping(method = RequestMethod.GET, value = "/deprovision/{userId:.+}")
     public LifeCycleResult preview(@PathVariable String userId, Authentication authentication) {
         LOG.info("Request for lifecycle preview for {} by {}", userId, authentication.getPrincipal());
 
-        return doDryRun(userId, true);
+        return userLifeCycleService.deprovision(userId, true);
     }
 
     @RequestMapping(method = RequestMethod.DELETE, value = "/deprovision/{userId:.+}/dry-run")
     public LifeCycleResult dryRun(@PathVariable String userId, Authentication authentication) {
         LOG.info("Request for lifecycle dry-run for {} by {}", userId, authentication.getPrincipal());
 
-        return doDryRun(userId, true);
+        return userLifeCycleService.deprovision(userId, true);
     }
 
     @RequestMapping(method = RequestMethod.DELETE, value = "/deprovision/{userId:.+}")
-    @Transactional
     public LifeCycleResult deprovision(@PathVariable String userId, Authentication authentication) {
         LOG.info("Request for lifecycle deprovision for {} by {}", userId, authentication.getPrincipal());
 
-        return doDryRun(userId, false);
+        return userLifeCycleService.deprovision(userId, false);
     }
 
-    private LifeCycleResult doDryRun(String userId, boolean dryRun) {
-        LifeCycleResult result = new LifeCycleResult();
-        Optional<Person> personOptional = this.personRepository.findByUrnIgnoreCase(userId);
-        if (!personOptional.isPresent()) {
-            //database integrity constraints enforce we don't have information about this user
-            return result;
-        }
-        Person person = personOptional.get();
-        Set<Attribute> attributes = new HashSet<>();
-        attributes.add(new Attribute("email", person.getEmail()));
-        attributes.add(new Attribute("name", person.getName()));
-        attributes.add(new Attribute("urn", person.getUrn()));
-        attributes.add(new Attribute("lastLoginDate", person.getLastLoginDate().toString()));
-        Set<JoinRequest> joinRequests = person.getJoinRequests();
-        joinRequests.forEach(joinRequest -> attributes.add(new Attribute("joinRequest", joinRequest.getTeam().getName())));
-        Set<Membership> memberships = person.getMemberships();
-        memberships.forEach(membership -> attributes.add(new Attribute("membership", membership.getTeam().getName())));
-        if (!dryRun) {
-            joinRequests.forEach(joinRequest -> joinRequestRepository.delete(joinRequest));
-            memberships.forEach(membership -> {
-                membershipRepository.delete(membership);
-                Team team = membership.getTeam();
-                int membershipCount = team.getMembershipCount();
-                if (membershipCount == 1) {
-                    Set<Invitation> invitations = team.getInvitations();
-                    invitations.forEach(invitation -> invitationRepository.delete(invitation));
-
-                    teamRepository.delete(team);
+    /**
+     * Streams a JSON object with the {@link LifeCycleResult} of each user id, a batch at a time.
+     */
+    @RequestMapping(method = RequestMethod.POST, value = "/deprovision")
+    public void bulkDeprovision(@RequestBody List<String> userIds, Authentication authentication,
+                                HttpServletResponse response) throws IOException {
+        LOG.info("Request for bulk lifecycle deprovision for {} users by {}", userIds.size(), authentication.getPrincipal());
+
+        doBulk(userIds, false, response);
+    }
+
+    @RequestMapping(method = RequestMethod.POST, value = "/deprovision/dry-run")
+    public void bulkDryRun(@RequestBody List<String> userIds, Authentication authentication,
+                           HttpServletResponse response) throws IOException {
+        LOG.info("Request for bulk lifecycle dry-run for {} users by {}", userIds.size(), authentication.getPrincipal());
+
+        doBulk(userIds, true, response);
+    }
+
+    private void doBulk(List<String> userIds, boolean dryRun, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            userLifeCycleService.deprovision(userIds, dryRun, results -> {
+                try {
+                    for (Map.Entry<String, LifeCycleResult> entry : results.entrySet()) {
+                        generator.writeObjectField(entry.getKey(), entry.getValue());
+                    }
+                    generator.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
             });
-            personRepository.delete(person);
+            generator.writeEndObject();
         }
-        result.setData(new ArrayList<>(attributes).stream()
-                .filter(attr -> StringUtils.hasText(attr.getValue()))
-                .sorted(Comparator.comparing(Attribute::getName))
-                .collect(Collectors.toList()));
-        return result;
     }
 
 }
@@ -0,0 +1,138 @@
+package teams.lifecycle;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import teams.repository.MembershipRepository;
+import teams.repository.PersonRepository;
+import teams.repository.TeamRepository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Deprovisions users with set-based deletes. The memberships, join requests and invitation messages of the users and
+ * the invitations, join requests and memberships of the teams that are left without members are removed by the
+ * cascading foreign keys of the database.
+ */
+@Service
+public class UserLifeCycleService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserLifeCycleService.class);
+
+    private final PersonRepository personRepository;
+    private final MembershipRepository membershipRepository;
+    private final TeamRepository teamRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final String spDashboardUrn;
+
+    public UserLifeCycleService(PersonRepository personRepository,
+                                MembershipRepository membershipRepository,
+                                TeamRepository teamRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${api.lifecycle.batch-size}") int batchSize,
+                                @Value("${sp_dashboard.person-urn}") String spDashboardUrn) {
+        this.personRepository = personRepository;
+        this.membershipRepository = membershipRepository;
+        this.teamRepository = teamRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.spDashboardUrn = spDashboardUrn.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The attributes of the user, its memberships and join requests are read with one query, whatever the number of
+     * teams of the user.
+     */
+    public LifeCycleResult deprovision(String userId, boolean dryRun) {
+        return transactionTemplate.execute(status -> deprovisionBatch(Collections.singletonList(userId), dryRun)).get(userId);
+    }
+
+    /**
+     * Each batch of users is deprovisioned in its own transaction, the results of a batch are handed to the consumer
+     * once the batch is committed. Users that were already deprovisioned - or are unknown - have an empty result, so
+     * a failed bulk request can be repeated.
+     */
+    public void deprovision(Collection<String> userIds, boolean dryRun, Consumer<Map<String, LifeCycleResult>> batchResults) {
+        List<String> distinctUserIds = new ArrayList<>(new LinkedHashSet<>(userIds));
+        for (int i = 0; i < distinctUserIds.size(); i += batchSize) {
+            List<String> batch = distinctUserIds.subList(i, Math.min(i + batchSize, distinctUserIds.size()));
+            batchResults.accept(transactionTemplate.execute(status -> deprovisionBatch(batch, dryRun)));
+        }
+    }
+
+    private Map<String, LifeCycleResult> deprovisionBatch(List<String> userIds, boolean dryRun) {
+        //Keyed by the lower case urn, which is matched against the normalised urn column
+        Map<String, Set<Attribute>> attributes = new HashMap<>();
+        Set<Long> personIds = new HashSet<>();
+        //The service principal of the SP Dashboard API is not a user, it is reported as unknown
+        List<String> urns = userIds.stream()
+                .map(userId -> userId.toLowerCase(Locale.ROOT))
+                .filter(urn -> !urn.equals(spDashboardUrn))
+                .collect(toList());
+        personRepository.findLifeCycleAttributesByUrnIn(urns).forEach(row -> {
+            personIds.add(((Number) row[0]).longValue());
+            Set<Attribute> personAttributes = attributes.computeIfAbsent(((String) row[3]).toLowerCase(Locale.ROOT),
+                    urn -> personAttributes(row));
+            if (row[6] != null) {
+                personAttributes.add(new Attribute((String) row[5], (String) row[6]));
+            }
+        });
+
+        Map<String, LifeCycleResult> results = new LinkedHashMap<>();
+        userIds.forEach(userId -> results.put(userId, lifeCycleResult(
+                attributes.getOrDefault(userId.toLowerCase(Locale.ROOT), Collections.emptySet()))));
+
+        if (!dryRun && !personIds.isEmpty()) {
+            List<Long> teamIds = membershipRepository.findTeamIdsWithOnlyMembers(personIds);
+            if (!teamIds.isEmpty()) {
+                teamRepository.deleteExternalTeamLinksByTeamIdIn(teamIds);
+                teamRepository.deleteByIdIn(teamIds);
+            }
+            int deleted = personRepository.deleteByIdIn(personIds);
+            LOG.info("Deprovisioned {} persons and {} teams without members", deleted, teamIds.size());
+        }
+        return results;
+    }
+
+    private Set<Attribute> personAttributes(Object[] row) {
+        Set<Attribute> attributes = new HashSet<>();
+        attributes.add(new Attribute("email", (String) row[1]));
+        attributes.add(new Attribute("name", (String) row[2]));
+        attributes.add(new Attribute("urn", (String) row[3]));
+        if (row[4] != null) {
+            Object lastLoginDate = row[4];
+            attributes.add(new Attribute("lastLoginDate", lastLoginDate instanceof Timestamp ?
+                    ((Timestamp) lastLoginDate).toInstant().toString() : lastLoginDate.toString()));
+        }
+        return attributes;
+    }
+
+    private LifeCycleResult lifeCycleResult(Set<Attribute> attributes) {
+        LifeCycleResult result = new LifeCycleResult();
+        result.setData(attributes.stream()
+                .filter(attr -> StringUtils.hasText(attr.getValue()))
+                .sorted(Comparator.comparing(Attribute::getName))
+                .collect(toList()));
+        return result;
+    }
+}
@@ -1,26 +1,32 @@
 package teams.mail;
 
 import com.github.mustachejava.DefaultMustacheFactory;
+import com.github.mustachejava.Mustache;
 import com.github.mustachejava.MustacheFactory;
 import net.bytebuddy.asm.Advice;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import teams.domain.FederatedUser;
 import teams.domain.Invitation;
 import teams.domain.JoinRequest;
 import teams.domain.Language;
 
 import javax.mail.MessagingException;
-import javax.mail.internet.MimeMessage;
 import java.io.IOException;
 import java.io.StringWriter;
-import java.sql.Date;
-import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
 public class MailBox {
 
@@ -28,18 +34,37 @@ public class MailBox {
     private static final String BASE_URL = "baseUrl";
     private static final String FEDERATED_USER = "federatedUser";
 
-    private final JavaMailSender mailSender;
+    private static final String JOIN_REQUEST_TEMPLATE = "mail_templates/join_request.html";
+    private static final String JOIN_REQUEST_DIGEST_TEMPLATE = "mail_templates/join_request_digest.html";
+
+    private static final List<String> TEMPLATES = Stream.concat(
+            Arrays.stream(Language.values()).map(MailBox::invitationTemplate),
+            Stream.of(JOIN_REQUEST_TEMPLATE, JOIN_REQUEST_DIGEST_TEMPLATE,
+                    "mail_templates/join_request_accepted.html", "mail_templates/join_request_declined.html")
+    ).collect(toList());
+
+    private static final Map<Language, DateTimeFormatter> EXPIRY_DATE_FORMATTERS = new EnumMap<>(Language.class);
+
+    static {
+        Arrays.stream(Language.values()).forEach(language -> EXPIRY_DATE_FORMATTERS.put(language,
+                DateTimeFormatter.ofLocalizedDate(FormatStyle.FULL)
+                        .withLocale(language.equals(Language.DUTCH) ? Locale.forLanguageTag("nl-NL") : Locale.ENGLISH)
+                        .withZone(ZoneId.systemDefault())));
+    }
+
+    private final MailOutbox mailOutbox;
     private final String baseUrl;
-    private final String emailFrom;
     private final String productName;
 
-    private final MustacheFactory mustacheFactory = new DefaultMustacheFactory();
+    private final Map<String, Mustache> templates;
 
-    public MailBox(JavaMailSender mailSender, String emailFrom, String baseUrl, String productName) {
-        this.mailSender = mailSender;
-        this.emailFrom = emailFrom;
+    public MailBox(MailOutbox mailOutbox, String baseUrl, String productName) {
+        this.mailOutbox = mailOutbox;
         this.baseUrl = baseUrl;
         this.productName = productName;
+        //Compiling all templates - and their partials - up front fails the startup on a broken template
+        MustacheFactory mustacheFactory = new DefaultMustacheFactory();
+        this.templates = TEMPLATES.stream().collect(toMap(Function.identity(), mustacheFactory::compile));
     }
 
     public void sendInviteMail(Invitation invitation, FederatedUser federatedUser) throws MessagingException, IOException {
@@ -55,15 +80,13 @@ public class MailBox {
         variables.put(FEDERATED_USER, federatedUser);
         variables.put("invitation", invitation);
         if (invitation.getMembershipExpiryDate() != null) {
-            Locale locale = languageCode.equals(Language.DUTCH.getLanguageCode()) ? Locale.forLanguageTag("nl-NL") : Locale.ENGLISH;
-            DateFormat dateFormat = DateFormat.getDateInstance(DateFormat.FULL, locale);
-            variables.put("membershipExpiryDate", dateFormat
-                    .format(Date.from(invitation.getMembershipExpiryDate())));
+            variables.put("membershipExpiryDate", EXPIRY_DATE_FORMATTERS.get(invitation.getLanguage())
+                    .format(invitation.getMembershipExpiryDate()));
         }
         variables.put("invitationMessage", invitation.getLatestInvitationMessage());
         variables.put(BASE_URL, baseUrl);
         sendMail(
-                String.format("mail_templates/invitation_%s.html", languageCode),
+                invitationTemplate(invitation.getLanguage()),
                 title,
                 variables,
                 invitation.getEmail());
@@ -76,12 +99,26 @@ public class MailBox {
         variables.put("joinRequest", joinRequest);
         variables.put(BASE_URL, baseUrl);
         sendMail(
-                "mail_templates/join_request.html",
+                JOIN_REQUEST_TEMPLATE,
                 String.format("Membership request for %s", joinRequest.getTeam().getName()),
                 variables,
                 admins.toArray(new String[admins.size()]));
     }
 
+    public void sendJoinRequestDigest(List<JoinRequest> joinRequests, String admin, FederatedUser federatedUser) throws MessagingException, IOException {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put(TITLE, productName);
+        variables.put(FEDERATED_USER, federatedUser);
+        variables.put("joinRequests", joinRequests);
+        variables.put("count", joinRequests.size());
+        variables.put(BASE_URL, baseUrl);
+        sendMail(
+                JOIN_REQUEST_DIGEST_TEMPLATE,
+                String.format("%s new membership request(s)", joinRequests.size()),
+                variables,
+                admin);
+    }
+
     public void sendJoinRequestAccepted(JoinRequest joinRequest, FederatedUser federatedUser) throws IOException, MessagingException {
         doSendJoinRequestAcceptedOrRejected(joinRequest, "Your request has been accepted", "join_request_accepted.html", federatedUser);
     }
@@ -105,26 +142,23 @@ public class MailBox {
 
     private void sendMail(String templateName, String subject, Map<String, Object> variables, String... to) throws MessagingException, IOException {
         String html = this.mailTemplate(templateName, variables);
-
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, false);
-        helper.setSubject(subject);
-        helper.setTo(to);
-        setText(html, helper);
-        helper.setFrom(emailFrom);
-        doSendMail(message);
+        doSendMail(subject, html, to);
     }
 
-    protected void setText(String html, MimeMessageHelper helper) throws MessagingException, IOException {
-        helper.setText(html, true);
+    protected void doSendMail(String subject, String html, String... to) {
+        mailOutbox.enqueue(subject, html, to);
     }
 
-    protected void doSendMail(MimeMessage message) {
-        new Thread(() -> mailSender.send(message)).start();
+    private String mailTemplate(String templateName, Map<String, Object> context) throws IOException {
+        Mustache mustache = templates.get(templateName);
+        if (mustache == null) {
+            throw new IllegalArgumentException(String.format("Unknown mail template %s", templateName));
+        }
+        return mustache.execute(new StringWriter(), context).toString();
     }
 
-    private String mailTemplate(String templateName, Map<String, Object> context) throws IOException {
-        return mustacheFactory.compile(templateName).execute(new StringWriter(), context).toString();
+    private static String invitationTemplate(Language language) {
+        return String.format("mail_templates/invitation_%s.html", language.getLanguageCode());
     }
 
 }
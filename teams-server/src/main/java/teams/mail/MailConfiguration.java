@@ -8,15 +8,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
-import org.springframework.mail.javamail.JavaMailSender;
 
 @Configuration
 @EnableConfigurationProperties(MailProperties.class)
 public class MailConfiguration {
 
-    @Value("${email.from}")
-    private String emailFrom;
-
     @Value("${email.base-url}")
     private String baseUrl;
 
@@ -24,19 +20,19 @@ public class MailConfiguration {
     private String productName;
 
     @Autowired
-    private JavaMailSender mailSender;
+    private MailOutbox mailOutbox;
 
     @Bean
     @Profile({"!dev"})
     public MailBox mailSenderProd() {
-        return new MailBox(mailSender, emailFrom, baseUrl, productName);
+        return new MailBox(mailOutbox, baseUrl, productName);
     }
 
     @Bean
     @Profile({"dev"})
     @Primary
     public MailBox mailSenderDev() {
-        return new MockMailBox(mailSender, emailFrom, baseUrl, productName);
+        return new MockMailBox(mailOutbox, baseUrl, productName);
     }
 
 
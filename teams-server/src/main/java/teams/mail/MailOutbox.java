@@ -0,0 +1,182 @@
+package teams.mail;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import teams.domain.OutboxMessage;
+import teams.repository.OutboxMessageRepository;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Mails are stored in the mail_outbox table, in the transaction of the caller if there is one, and sent by a fixed
+ * pool of workers. Each worker sends a claimed batch over a single SMTP connection. Failed messages are retried with an
+ * exponential backoff. Claiming is atomic, so every node can drain the same outbox.
+ */
+@Component
+public class MailOutbox implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MailOutbox.class);
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final JavaMailSender mailSender;
+    private final String emailFrom;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration claimTimeout;
+    private final ThreadPoolTaskExecutor executor;
+    private final Semaphore idleWorkers;
+
+    private volatile boolean stopped;
+
+    public MailOutbox(OutboxMessageRepository outboxMessageRepository,
+                      JavaMailSender mailSender,
+                      @Value("${email.from}") String emailFrom,
+                      @Value("${mail-outbox.threads}") int threads,
+                      @Value("${mail-outbox.batch-size}") int batchSize,
+                      @Value("${mail-outbox.max-attempts}") int maxAttempts,
+                      @Value("${mail-outbox.initial-backoff-seconds}") long initialBackoffSeconds,
+                      @Value("${mail-outbox.claim-timeout-seconds}") long claimTimeoutSeconds) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.mailSender = mailSender;
+        this.emailFrom = emailFrom;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofSeconds(initialBackoffSeconds);
+        this.claimTimeout = Duration.ofSeconds(claimTimeoutSeconds);
+        this.idleWorkers = new Semaphore(threads);
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(threads);
+        this.executor.setMaxPoolSize(threads);
+        this.executor.setThreadNamePrefix("mail-outbox-");
+        this.executor.setWaitForTasksToCompleteOnShutdown(true);
+        this.executor.setAwaitTerminationSeconds((int) claimTimeoutSeconds);
+        this.executor.initialize();
+    }
+
+    public OutboxMessage enqueue(String subject, String html, String... to) {
+        return outboxMessageRepository.save(new OutboxMessage(subject, html, to));
+    }
+
+    /**
+     * Hands a claimed batch to every idle worker until the outbox has no due messages left.
+     */
+    @Scheduled(fixedDelayString = "${mail-outbox.poll-interval-millis}")
+    public void drain() {
+        while (!stopped && idleWorkers.tryAcquire()) {
+            List<OutboxMessage> batch;
+            try {
+                batch = claim();
+            } catch (RuntimeException e) {
+                idleWorkers.release();
+                LOG.error("Claiming mails from the outbox failed", e);
+                return;
+            }
+            if (batch.isEmpty()) {
+                idleWorkers.release();
+                return;
+            }
+            executor.execute(() -> {
+                try {
+                    send(batch);
+                } finally {
+                    idleWorkers.release();
+                }
+            });
+        }
+    }
+
+    private List<OutboxMessage> claim() {
+        String claim = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        int claimed = outboxMessageRepository.claim(claim, now, now.minus(claimTimeout), batchSize);
+        return claimed == 0 ? new ArrayList<>() : outboxMessageRepository.findByClaim(claim);
+    }
+
+    void send(List<OutboxMessage> batch) {
+        Map<MimeMessage, OutboxMessage> messages = new IdentityHashMap<>();
+        List<OutboxMessage> failed = new ArrayList<>();
+        for (OutboxMessage outboxMessage : batch) {
+            try {
+                messages.put(mimeMessage(outboxMessage), outboxMessage);
+            } catch (MessagingException | RuntimeException e) {
+                outboxMessage.failed(e.toString(), initialBackoff, maxAttempts);
+                failed.add(outboxMessage);
+            }
+        }
+        if (!messages.isEmpty()) {
+            try {
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                e.getFailedMessages().forEach((mimeMessage, exception) -> {
+                    OutboxMessage outboxMessage = messages.remove(mimeMessage);
+                    if (outboxMessage != null) {
+                        outboxMessage.failed(exception.toString(), initialBackoff, maxAttempts);
+                        failed.add(outboxMessage);
+                    }
+                });
+                if (e.getFailedMessages().isEmpty()) {
+                    failAll(messages, e, failed);
+                }
+            } catch (RuntimeException e) {
+                failAll(messages, e, failed);
+            }
+        }
+        List<Long> sent = messages.values().stream().map(OutboxMessage::getId).collect(toList());
+        if (!sent.isEmpty()) {
+            outboxMessageRepository.deleteByIdIn(sent);
+        }
+        if (!failed.isEmpty()) {
+            outboxMessageRepository.saveAll(failed);
+            LOG.warn(String.format("Sending %s of %s mails failed, first error: %s",
+                    failed.size(), batch.size(), failed.get(0).getLastError()));
+        }
+        LOG.debug(String.format("Sent %s mails", sent.size()));
+    }
+
+    private void failAll(Map<MimeMessage, OutboxMessage> messages, Exception e, List<OutboxMessage> failed) {
+        messages.values().forEach(outboxMessage -> {
+            outboxMessage.failed(e.toString(), initialBackoff, maxAttempts);
+            failed.add(outboxMessage);
+        });
+        messages.clear();
+    }
+
+    private MimeMessage mimeMessage(OutboxMessage outboxMessage) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, false);
+        helper.setSubject(outboxMessage.getSubject());
+        helper.setTo(outboxMessage.recipientList());
+        helper.setText(outboxMessage.getBody(), true);
+        helper.setFrom(emailFrom);
+        return message;
+    }
+
+    /**
+     * Stops claiming new batches and lets the workers finish the batches they already claimed.
+     */
+    @Override
+    public void destroy() {
+        stopped = true;
+        executor.shutdown();
+    }
+}
@@ -1,21 +1,35 @@
 package teams.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import teams.domain.ExternalTeam;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
 public interface ExternalTeamRepository extends CrudRepository<ExternalTeam, Long> {
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<ExternalTeam> findByIdentifierIn(List<String> identifiers);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<ExternalTeam> findByIdentifier(String identifier);
 
+    /**
+     * Includes the - owning side of the - links to teams, so they can be changed without a select per external team
+     */
+    @EntityGraph(value = "findWithTeamsByIdentifierIn", type = EntityGraph.EntityGraphType.LOAD, attributePaths = "teams")
+    List<ExternalTeam> findWithTeamsByIdentifierIn(Collection<String> identifiers);
+
     List<ExternalTeam> findByTeamsUrn(String urn);
 
     @Query(value = "select et.identifier, t.id, t.name from teams.domain.ExternalTeam et " +
@@ -0,0 +1,40 @@
+package teams.repository;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import teams.domain.InvitationJob;
+
+import java.time.Instant;
+
+@Repository
+public interface InvitationJobRepository extends CrudRepository<InvitationJob, Long> {
+
+    /**
+     * The jobs of a node only live in its executor, so the jobs a node left unfinished when it stopped never finish
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE invitation_jobs SET status = 'FAILED', finished = :now, updated = :now " +
+            "WHERE node = :node AND status IN ('PENDING', 'RUNNING')", nativeQuery = true)
+    int failUnfinishedJobs(@Param("node") String node, @Param("now") Instant now);
+
+    /**
+     * The jobs of a node that died, a live node updates its unfinished jobs at least every heartbeat
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE invitation_jobs SET status = 'FAILED', finished = :now, updated = :now " +
+            "WHERE status IN ('PENDING', 'RUNNING') AND updated < :updatedBefore", nativeQuery = true)
+    int failStaleJobs(@Param("updatedBefore") Instant updatedBefore, @Param("now") Instant now);
+
+    //Queued jobs have no progress to report
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE invitation_jobs SET updated = :now WHERE node = :node AND status = 'PENDING'", nativeQuery = true)
+    int heartbeatPendingJobs(@Param("node") String node, @Param("now") Instant now);
+
+}
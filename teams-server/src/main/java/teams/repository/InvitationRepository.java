@@ -1,5 +1,7 @@
 package teams.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -8,30 +10,59 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import teams.domain.Invitation;
+import teams.domain.SpDashboardInvitation;
 import teams.domain.Team;
 
 import javax.persistence.OptimisticLockException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InvitationRepository extends CrudRepository<Invitation, Long> {
 
-    @EntityGraph(value = "findFirstByInvitationHash", type = EntityGraph.EntityGraphType.LOAD,
-            attributePaths = {"invitationMessages", "team", "team.memberships"})
-    Optional<Invitation> findFirstByInvitationHash(String invitationHash);
+    /**
+     * Loads the invitation with its messages and the bare team, not the roster of the team.
+     */
+    @EntityGraph(value = "findWithTeamByInvitationHash", type = EntityGraph.EntityGraphType.LOAD,
+            attributePaths = {"invitationMessages.person", "team"})
+    Optional<Invitation> findWithTeamByInvitationHash(String invitationHash);
+
+    @EntityGraph(value = "findWithTeamById", type = EntityGraph.EntityGraphType.LOAD,
+            attributePaths = {"invitationMessages.person", "team"})
+    Optional<Invitation> findWithTeamById(Long id);
 
     @Query(value = "select i.team.id, count(i.id) from teams.domain.Invitation i where i.team.id in :teamIds and i.accepted = false group by i.team")
     List<Object[]> countInvitationsByTeamId(@Param("teamIds") List<Long> teamIds);
 
+    @Query(value = "select new teams.domain.SpDashboardInvitation(i.id, i.email, i.intendedRole, i.language, i.timestamp, " +
+            "i.expiryDate, i.membershipExpiryDate) from teams.domain.Invitation i where i.team.id = :teamId " +
+            "and i.accepted = false and i.declined = false and i.timestamp > :notExpiredSince order by i.id",
+            countQuery = "select count(i.id) from teams.domain.Invitation i where i.team.id = :teamId " +
+                    "and i.accepted = false and i.declined = false and i.timestamp > :notExpiredSince")
+    Page<SpDashboardInvitation> findSpDashboardInvitationsByTeamId(@Param("teamId") Long teamId,
+                                                                   @Param("notExpiredSince") long notExpiredSince,
+                                                                   Pageable pageable);
+
+    //Ordered by the timestamp so a chunk is a range scan of invitations_timestamp_index, not a walk of the primary key
     @Transactional(noRollbackFor = OptimisticLockException.class)
     @Modifying
-    @Query(value = "DELETE FROM invitations WHERE timestamp < :epochMilliseconds", nativeQuery = true)
-    int deleteExpiredInvitations(@Param("epochMilliseconds") long epochMilliseconds);
+    @Query(value = "DELETE FROM invitations WHERE timestamp < :epochMilliseconds ORDER BY timestamp LIMIT :limit", nativeQuery = true)
+    int deleteExpiredInvitations(@Param("epochMilliseconds") long epochMilliseconds, @Param("limit") int limit);
 
     @EntityGraph(value = "findFirstById", type = EntityGraph.EntityGraphType.LOAD,
             attributePaths = {"invitationMessages", "team", "team.memberships"})
     Optional<Invitation> findById(Long id);
 
     List<Invitation> findByTeamAndEmail(Team team, String email);
+
+    @Query(value = "SELECT LOWER(p.email) FROM memberships m INNER JOIN persons p ON p.id = m.person_id " +
+            "WHERE m.team_id = :teamId AND LOWER(p.email) IN :emails " +
+            "UNION " +
+            "SELECT LOWER(i.mailaddress) FROM invitations i WHERE i.team_id = :teamId AND LOWER(i.mailaddress) IN :emails " +
+            "AND i.accepted = 0 AND i.denied = 0 AND i.timestamp > :notExpiredSince",
+            nativeQuery = true)
+    List<String> findMemberAndOpenInvitationEmails(@Param("teamId") Long teamId,
+                                                   @Param("emails") Collection<String> emails,
+                                                   @Param("notExpiredSince") long notExpiredSince);
 }
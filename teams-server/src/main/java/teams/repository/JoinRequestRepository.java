@@ -1,14 +1,18 @@
 package teams.repository;
 
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import teams.domain.JoinRequest;
 import teams.domain.Person;
 import teams.domain.Team;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -23,4 +27,14 @@ public interface JoinRequestRepository extends CrudRepository<JoinRequest, Long>
 
     List<JoinRequest> findByPersonAndTeam(Person person, Team team);
 
+    //Regardless of the current digest mode, requests queued before the digest was turned off are still pending
+    @EntityGraph(value = "findByNotifiedIsNullOrderByTeamId", type = EntityGraph.EntityGraphType.LOAD,
+            attributePaths = {"team", "person"})
+    List<JoinRequest> findByNotifiedIsNullOrderByTeamId();
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE requests SET notified = :notified WHERE id IN :ids", nativeQuery = true)
+    int markNotified(@Param("ids") Collection<Long> ids, @Param("notified") Instant notified);
+
 }
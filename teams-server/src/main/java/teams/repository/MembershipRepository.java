@@ -1,5 +1,7 @@
 package teams.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -7,10 +9,17 @@ import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import teams.domain.AdminMember;
 import teams.domain.Membership;
+import teams.domain.Role;
+import teams.domain.SpDashboardMember;
 
 import javax.persistence.OptimisticLockException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+
 @Repository
 public interface MembershipRepository extends CrudRepository<Membership, Long> {
 
@@ -18,10 +27,55 @@ public interface MembershipRepository extends CrudRepository<Membership, Long> {
             attributePaths = "team.memberships")
     Optional<Membership> findByUrnTeamAndUrnPerson(String teamUrn, String personUrn);
 
+    //Covered by the unique person_team_unique index
+    boolean existsByTeamIdAndPersonId(Long teamId, Long personId);
+
+    @Query(value = "select m.role from teams.domain.Membership m where m.team.id = :teamId and m.person.id = :personId")
+    Optional<Role> findRoleByTeamIdAndPersonId(@Param("teamId") Long teamId, @Param("personId") Long personId);
+
+    @EntityGraph(value = "findByTeamIdAndRoleIn", type = EntityGraph.EntityGraphType.LOAD, attributePaths = "person")
+    List<Membership> findByTeamIdAndRoleIn(Long teamId, Collection<Role> roles);
+
+    /**
+     * The admins of the team and the membership of the person - if any - without loading the roster of the team
+     */
+    @EntityGraph(value = "findByTeamIdAndRoleInOrPersonId", type = EntityGraph.EntityGraphType.LOAD, attributePaths = "person")
+    @Query(value = "select m from teams.domain.Membership m where m.team.id = :teamId " +
+            "and (m.role in :roles or m.person.id = :personId)")
+    List<Membership> findByTeamIdAndRoleInOrPersonId(@Param("teamId") Long teamId,
+                                                     @Param("roles") Collection<Role> roles,
+                                                     @Param("personId") Long personId);
+
+    @EntityGraph(value = "findByTeamIdInAndRoleIn", type = EntityGraph.EntityGraphType.LOAD, attributePaths = "person")
+    List<Membership> findByTeamIdInAndRoleIn(Collection<Long> teamIds, Collection<Role> roles);
+
     @Transactional(noRollbackFor = OptimisticLockException.class)
     @Modifying
-    @Query(value = "DELETE FROM memberships WHERE expiry_date is not null and expiry_date < (NOW() - INTERVAL :retentionDays DAY)", nativeQuery = true)
-    int deleteExpiredMemberships(@Param("retentionDays") long retentionDays);
+    @Query(value = "DELETE FROM memberships WHERE id IN :ids AND expiry_date < :expiredBefore", nativeQuery = true)
+    int deleteExpiredMemberships(@Param("ids") Collection<Long> ids, @Param("expiredBefore") Instant expiredBefore);
+
+    @Query(value = "select new teams.domain.AdminMember(p.name, p.email) from teams.domain.Membership m " +
+            "join m.person p where m.team.id = :teamId and m.role in :roles order by m.id")
+    List<AdminMember> findAdminMembersByTeamIdAndRoleIn(@Param("teamId") Long teamId,
+                                                        @Param("roles") Collection<Role> roles);
+
+    @Query(value = "select new teams.domain.SpDashboardMember(m.id, m.role, m.created, m.expiryDate, m.origin, " +
+            "p.urn, p.name, p.email, p.guest) from teams.domain.Membership m join m.person p " +
+            "where m.team.id = :teamId order by m.id",
+            countQuery = "select count(m.id) from teams.domain.Membership m where m.team.id = :teamId")
+    Page<SpDashboardMember> findSpDashboardMembersByTeamId(@Param("teamId") Long teamId, Pageable pageable);
+
+    /**
+     * @return the ids of the teams that have no members left when the persons are removed
+     */
+    @Query(value = "select distinct m.team.id from teams.domain.Membership m where m.person.id in :personIds " +
+            "and not exists (select o.id from teams.domain.Membership o where o.team = m.team and o.person.id not in :personIds)")
+    List<Long> findTeamIdsWithOnlyMembers(@Param("personIds") Collection<Long> personIds);
+
+    @Query(value = "select m.id from teams.domain.Membership m where m.expiryDate < :expiredBefore and m.id > :afterId order by m.id")
+    List<Long> findExpiredMembershipIds(@Param("expiredBefore") Instant expiredBefore,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
 
 
 }
@@ -0,0 +1,38 @@
+package teams.repository;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import teams.domain.OutboxMessage;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends CrudRepository<OutboxMessage, Long> {
+
+    /**
+     * Atomically claims due messages and messages whose claim has gone stale, e.g. because the node that claimed them
+     * died. The claimed messages are returned by {@link #findByClaim(String)}.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE mail_outbox SET status = 'SENDING', claim = :claim, claimed = :now " +
+            "WHERE (status = 'PENDING' AND next_attempt <= :now) OR (status = 'SENDING' AND claimed < :staleBefore) " +
+            "ORDER BY id LIMIT :limit", nativeQuery = true)
+    int claim(@Param("claim") String claim,
+              @Param("now") Instant now,
+              @Param("staleBefore") Instant staleBefore,
+              @Param("limit") int limit);
+
+    List<OutboxMessage> findByClaim(String claim);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM mail_outbox WHERE id IN :ids", nativeQuery = true)
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
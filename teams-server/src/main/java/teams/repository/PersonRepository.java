@@ -1,5 +1,6 @@
 package teams.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
@@ -9,23 +10,57 @@ import org.springframework.transaction.annotation.Transactional;
 import teams.domain.Person;
 
 import javax.persistence.OptimisticLockException;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PersonRepository extends CrudRepository<Person, Long> {
 
-    Optional<Person> findByUrnIgnoreCase(String urn);
+    @Query(value = "select p from teams.domain.Person p where p.urnLower = lower(:urn)")
+    Optional<Person> findByUrnIgnoreCase(@Param("urn") String urn);
+
+    /**
+     * One row per membership and join request of the persons - and one row for persons without memberships - with
+     * the columns person id, email, name, urn, last login date, 'membership' or 'joinRequest' and the team name.
+     * The urns must be in lower case.
+     */
+    @Query(value = "SELECT p.id, p.email, p.name, p.urn, p.last_login_date, 'membership', t.name FROM persons p " +
+            "LEFT OUTER JOIN memberships m ON m.person_id = p.id LEFT OUTER JOIN teams t ON t.id = m.team_id " +
+            "WHERE p.urn_lower IN :urns " +
+            "UNION ALL " +
+            "SELECT p.id, p.email, p.name, p.urn, p.last_login_date, 'joinRequest', t.name FROM persons p " +
+            "INNER JOIN requests r ON r.person_id = p.id INNER JOIN teams t ON t.id = r.team_id " +
+            "WHERE p.urn_lower IN :urns", nativeQuery = true)
+    List<Object[]> findLifeCycleAttributesByUrnIn(@Param("urns") Collection<String> urns);
 
     List<Person> findFirst10ByNameContainingOrEmailContainingAllIgnoreCase(String name, String email);
 
     @Transactional(noRollbackFor = OptimisticLockException.class)
     @Modifying
-    @Query(value = "DELETE FROM persons WHERE persons.last_login_date < (NOW() - INTERVAL :retentionDays DAY) " +
+    @Query(value = "DELETE FROM persons WHERE persons.id IN :ids AND persons.last_login_date < :lastLoginBefore " +
             "AND NOT EXISTS (SELECT * FROM memberships WHERE persons.id = memberships.person_id) " +
-            "AND NOT EXISTS (SELECT * FROM invitation_message WHERE persons.id = invitation_message.person_id) " +
-            "AND persons.urn NOT IN :urns ",
+            "AND NOT EXISTS (SELECT * FROM invitation_message WHERE persons.id = invitation_message.person_id) ",
             nativeQuery = true)
-    int deleteOrphanPersons(@Param("retentionDays") long retentionDays, @Param("urns") List<String> urns);
+    int deleteOrphanPersons(@Param("ids") Collection<Long> ids, @Param("lastLoginBefore") Instant lastLoginBefore);
+
+    @Query(value = "select p.id from teams.domain.Person p where p.lastLoginDate < :lastLoginBefore and p.id > :afterId " +
+            "and p.urn not in :urns " +
+            "and not exists (select m.id from teams.domain.Membership m where m.person = p) " +
+            "and not exists (select im.id from teams.domain.InvitationMessage im where im.person = p) " +
+            "order by p.id")
+    List<Long> findOrphanPersonIds(@Param("lastLoginBefore") Instant lastLoginBefore,
+                                   @Param("afterId") Long afterId,
+                                   @Param("urns") List<String> urns,
+                                   Pageable pageable);
+
+    /**
+     * The memberships, join requests and invitation messages of the persons are deleted by the database cascade.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM persons WHERE id IN :ids", nativeQuery = true)
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 
 }
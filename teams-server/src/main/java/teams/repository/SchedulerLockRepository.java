@@ -0,0 +1,53 @@
+package teams.repository;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import teams.domain.SchedulerLock;
+
+/**
+ * All times are computed by the database, so the clocks of the nodes do not have to be in sync.
+ */
+@Repository
+public interface SchedulerLockRepository extends CrudRepository<SchedulerLock, String> {
+
+    /**
+     * Creates and takes the lock the first time the job runs. Returns 0 when the lock already exists.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO scheduler_locks (name, holder, locked_at, locked_until) " +
+            "VALUES (:name, :holder, CURRENT_TIMESTAMP(3), TIMESTAMPADD(SECOND, :lockAtMostSeconds, CURRENT_TIMESTAMP(3)))",
+            nativeQuery = true)
+    int insertLock(@Param("name") String name,
+                   @Param("holder") String holder,
+                   @Param("lockAtMostSeconds") long lockAtMostSeconds);
+
+    /**
+     * Takes the lock when it is released or expired, e.g. because the holder died. Returns 0 when it is held.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE scheduler_locks SET holder = :holder, locked_at = CURRENT_TIMESTAMP(3), " +
+            "locked_until = TIMESTAMPADD(SECOND, :lockAtMostSeconds, CURRENT_TIMESTAMP(3)) " +
+            "WHERE name = :name AND locked_until <= CURRENT_TIMESTAMP(3)", nativeQuery = true)
+    int takeLock(@Param("name") String name,
+                 @Param("holder") String holder,
+                 @Param("lockAtMostSeconds") long lockAtMostSeconds);
+
+    /**
+     * Keeps the lock at least lockAtLeastSeconds after it was taken, so nodes firing the same tick a little later
+     * do not run the job again.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE scheduler_locks SET locked_until = " +
+            "GREATEST(CURRENT_TIMESTAMP(3), TIMESTAMPADD(SECOND, :lockAtLeastSeconds, locked_at)) " +
+            "WHERE name = :name AND holder = :holder", nativeQuery = true)
+    int releaseLock(@Param("name") String name,
+                    @Param("holder") String holder,
+                    @Param("lockAtLeastSeconds") long lockAtLeastSeconds);
+}
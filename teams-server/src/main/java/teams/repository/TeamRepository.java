@@ -1,28 +1,51 @@
 package teams.repository;
 
+import org.hibernate.Hibernate;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import teams.domain.SpDashboardTeamSummary;
 import teams.domain.Team;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
 public interface TeamRepository extends CrudRepository<Team, Long> {
 
-    @EntityGraph(value = "findByUrn", type = EntityGraph.EntityGraphType.LOAD, attributePaths = "memberships")
+    @EntityGraph(value = "findByUrn", type = EntityGraph.EntityGraphType.LOAD, attributePaths = "memberships.person")
     Optional<Team> findByUrn(String urn);
 
     Optional<Team> findByUrnOrderById(String urn);
 
-    @EntityGraph(value = "findByPublicLinkAndPublicLinkDisabled", type = EntityGraph.EntityGraphType.LOAD, attributePaths = "memberships")
+    /**
+     * The bare team, not the roster of the team. Resolved through the LookupCache, so misses are not queried again.
+     */
     Optional<Team> findByPublicLinkAndPublicLinkDisabled(String publicLink, boolean publicLinkDisabled);
 
+    /**
+     * The team with its roster. Not resolved through the LookupCache, accepting a public link is checked against the
+     * current link of the team.
+     */
+    @EntityGraph(value = "findWithMembershipsByPublicLinkAndPublicLinkDisabled", type = EntityGraph.EntityGraphType.LOAD,
+            attributePaths = "memberships.person")
+    Optional<Team> findWithMembershipsByPublicLinkAndPublicLinkDisabled(String publicLink, boolean publicLinkDisabled);
+
+    //The bare team, not the roster of the team
+    Optional<Team> findTeamById(Long id);
+
     @EntityGraph(value = "findByMembershipsUrnPersonIgnoreCase", type = EntityGraph.EntityGraphType.LOAD, attributePaths = "memberships")
-    List<Team> findByMembershipsUrnPersonIgnoreCase(String personUrn);
+    @Query(value = "select distinct t from teams.domain.Team t join t.memberships m where m.urnPersonLower = lower(:personUrn)")
+    List<Team> findByMembershipsUrnPersonIgnoreCase(@Param("personUrn") String personUrn);
 
     @Query(value = "select distinct(teams.name), teams.id, teams.description, (select memberships.role from memberships " +
             "where memberships.person_id = ?1 and memberships.team_id = teams.id) as role " +
@@ -45,6 +68,20 @@ public interface TeamRepository extends CrudRepository<Team, Long> {
     @Query(value = "insert into team_name_history (name) values (?)", nativeQuery = true)
     void insertTeamNameHistory(String name);
 
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM team_external_groups WHERE team_id IN :teamIds", nativeQuery = true)
+    int deleteExternalTeamLinksByTeamIdIn(@Param("teamIds") Collection<Long> teamIds);
+
+    /**
+     * The memberships, invitations and join requests of the teams are deleted by the database cascade, the links
+     * to external teams must be deleted first.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM teams WHERE id IN :ids", nativeQuery = true)
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
     @EntityGraph(value = "findById", type = EntityGraph.EntityGraphType.LOAD, attributePaths = "memberships")
     Optional<Team> findById(Long id);
 
@@ -52,7 +89,52 @@ public interface TeamRepository extends CrudRepository<Team, Long> {
             attributePaths = {"memberships.person"})
     Team findFirstById(Long id);
 
+    //The urn of a team never changes
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query(value = "select t.id from teams.domain.Team t where t.urn = :urn")
     Optional<Long> findIdByUrn(@Param("urn") String urn);
 
+    @Query(value = "select new teams.domain.SpDashboardTeamSummary(t.id, t.urn, t.name, t.description, t.viewable, " +
+            "t.membershipCount, " +
+            "(select count(j.id) from teams.domain.JoinRequest j where j.team = t), " +
+            "(select count(i.id) from teams.domain.Invitation i where i.team = t and i.accepted = false " +
+            "and i.declined = false and i.timestamp > :notExpiredSince)) " +
+            "from teams.domain.Team t where t.urn = :urn")
+    Optional<SpDashboardTeamSummary> findSpDashboardTeamSummaryByUrn(@Param("urn") String urn,
+                                                                      @Param("notExpiredSince") long notExpiredSince);
+
+    @EntityGraph(value = "findWithExternalTeamsById", type = EntityGraph.EntityGraphType.LOAD,
+            attributePaths = {"externalTeams"})
+    Optional<Team> findWithExternalTeamsById(Long id);
+
+    @EntityGraph(value = "findWithInvitationsById", type = EntityGraph.EntityGraphType.LOAD,
+            attributePaths = {"invitations.invitationMessages"})
+    Optional<Team> findWithInvitationsById(Long id);
+
+    @EntityGraph(value = "findWithJoinRequestsById", type = EntityGraph.EntityGraphType.LOAD,
+            attributePaths = {"joinRequests.person"})
+    Optional<Team> findWithJoinRequestsById(Long id);
+
+    /**
+     * Fetch plan for the team views. The team must already be loaded - including memberships.person - in the
+     * current persistence context. Every collection the view needs and that is not yet initialized is loaded with
+     * one statement, so the number of statements does not depend on the number of members, invitations or
+     * join requests. Collections are fetched in separate statements to prevent a cartesian product.
+     */
+    default Team fetchTeamView(Team team, boolean includeAdminDetails) {
+        Long id = team.getId();
+        if (!Hibernate.isInitialized(team.getExternalTeams())) {
+            findWithExternalTeamsById(id);
+        }
+        if (includeAdminDetails) {
+            if (!Hibernate.isInitialized(team.getInvitations())) {
+                findWithInvitationsById(id);
+            }
+            if (!Hibernate.isInitialized(team.getJoinRequests())) {
+                findWithJoinRequestsById(id);
+            }
+        }
+        return team;
+    }
+
 }
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
@@ -27,6 +28,7 @@ import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import teams.ConnectionHoldInterceptor;
 import teams.domain.Feature;
 import teams.repository.MembershipRepository;
 import teams.repository.PersonRepository;
@@ -272,6 +274,9 @@ public class SecurityConfig {
     @Configuration
     public class MvcConfig implements WebMvcConfigurer {
 
+        @Autowired
+        private ConnectionHoldInterceptor connectionHoldInterceptor;
+
         @Override
         public void addArgumentResolvers(List<HandlerMethodArgumentResolver> argumentResolvers) {
             argumentResolvers.add(new FederatedUserHandlerMethodArgumentResolver());
@@ -280,6 +285,8 @@ public class SecurityConfig {
         @Override
         public void addInterceptors(InterceptorRegistry registry) {
             registry.addInterceptor(new SessionAliveInterceptor());
+            //Completes after the open-session-in-view interceptor - if enabled - so its connection hold is recorded
+            registry.addInterceptor(connectionHoldInterceptor).order(Ordered.HIGHEST_PRECEDENCE);
         }
 
         @Override
@@ -0,0 +1,129 @@
+package teams.voot;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import teams.domain.ExternalTeam;
+import teams.domain.Membership;
+import teams.domain.Role;
+import teams.domain.Team;
+import teams.exception.ResourceNotFoundException;
+import teams.repository.ExternalTeamRepository;
+import teams.repository.MembershipRepository;
+import teams.repository.TeamRepository;
+
+import java.util.*;
+import java.util.stream.StreamSupport;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * The reads of the VOOT API, each in one read-only transaction. Only groups and members are returned, no entities.
+ */
+@Service
+@Transactional(readOnly = true)
+public class VootService {
+
+    private final TeamRepository teamRepository;
+    private final MembershipRepository membershipRepository;
+    private final ExternalTeamRepository externalTeamRepository;
+    private final String groupNameContext;
+
+    public VootService(TeamRepository teamRepository,
+                       MembershipRepository membershipRepository,
+                       ExternalTeamRepository externalTeamRepository,
+                       @Value("${teams.group-name-context}") String groupNameContext) {
+        this.teamRepository = teamRepository;
+        this.membershipRepository = membershipRepository;
+        this.externalTeamRepository = externalTeamRepository;
+        this.groupNameContext = groupNameContext;
+    }
+
+    public Group findByLocalGroupId(String localGroupId) {
+        localGroupId = stripGroupNameContext(localGroupId);
+        Team team = resolveOptionalOrThrow(teamRepository.findByUrnOrderById(localGroupId), localGroupId);
+        return convertTeamToGroup(team);
+    }
+
+    public Set<Group> linkedLocalTeamsGroup(String fullyQualifiedExternalGroupIds) {
+        List<String> identifiers = Arrays.asList(fullyQualifiedExternalGroupIds.split(","));
+        return externalTeamRepository.findByIdentifierIn(identifiers).stream()
+                .map(ExternalTeam::getTeams)
+                .flatMap(Collection::stream)
+                .map(this::convertTeamToGroup)
+                .collect(toSet());
+    }
+
+    public List<String> linkedExternalGroupIds(String localGroupUrn) {
+        localGroupUrn = stripGroupNameContext(localGroupUrn);
+        return externalTeamRepository.findByTeamsUrn(localGroupUrn)
+                .stream()
+                .map(ExternalTeam::getIdentifier)
+                .collect(toList());
+    }
+
+    public List<Member> getMembers(String localGroupId) {
+        localGroupId = stripGroupNameContext(localGroupId);
+        Team team = resolveOptionalOrThrow(teamRepository.findByUrn(localGroupId), localGroupId);
+        return team.getMemberships()
+                .stream()
+                .filter(membership -> !membership.getRole().equals(Role.OWNER))
+                .map(this::convertMembershipToMember).collect(toList());
+    }
+
+    public List<Group> getAllGroups() {
+        return StreamSupport.stream(teamRepository.findAll().spliterator(), false)
+                .map(this::convertTeamToGroup).collect(toList());
+    }
+
+    public List<Group> getGroupsForMember(String uid) {
+        return teamRepository.findByMembershipsUrnPersonIgnoreCase(uid)
+                .stream()
+                .map(team -> this.convertTeamToGroupIncludingMembership(team, uid))
+                .filter(group -> !group.getMembership().equals("owner"))
+                .collect(toList());
+    }
+
+    public Group getGroupsForMemberAndTeamUrn(String uid, String groupId) {
+        final String strippedGroupId = stripGroupNameContext(groupId);
+        Optional<Membership> membershipOptional = membershipRepository.findByUrnTeamAndUrnPerson(strippedGroupId, uid);
+        Membership membership = membershipOptional.orElseThrow(
+                () -> new ResourceNotFoundException(String.format("Membership for team %s and Person %s not found", strippedGroupId, uid)));
+        if (membership.getRole().equals(Role.OWNER)) {
+            throw new ResourceNotFoundException(String.format("Membership for team %s and Person %s not found", strippedGroupId, uid));
+        }
+        return this.convertTeamToGroupIncludingMembership(membership.getTeam(), uid);
+    }
+
+    private Member convertMembershipToMember(Membership membership) {
+        return new Member(membership.getUrnPerson(), membership.getPerson().getName(), membership.getPerson().getEmail());
+    }
+
+    private <T> T resolveOptionalOrThrow(Optional<T> optional, String urn) {
+        return optional.orElseThrow(() -> new ResourceNotFoundException(String.format("Non existent Team with urn %s", urn)));
+    }
+
+    private Group convertTeamToGroup(Team team) {
+        return new Group(team.getUrn(), team.getName(), team.getDescription(), "member");
+    }
+
+    private Group convertTeamToGroupIncludingMembership(Team team, String urnPerson) {
+        Membership membership = team.getMemberships().stream()
+                .filter(mb -> mb.getUrnPerson().equalsIgnoreCase(urnPerson))
+                .findFirst().orElseThrow(() ->
+                        new ResourceNotFoundException(
+                                String.format("Expected team %s to have a member with personUrn %s",
+                                        team.getUrn(), urnPerson)));
+
+        String role = membership.getRole().equals(Role.MEMBER) ? "member" :  membership.getRole().equals(Role.OWNER) ? "owner" : "admin";
+        return new Group(team.getUrn(), team.getName(), team.getDescription(), role);
+    }
+
+    private String stripGroupNameContext(String fullyQualifiedTeamName) {
+        return StringUtils.hasText(fullyQualifiedTeamName) ? fullyQualifiedTeamName.
+                replace(groupNameContext, "") : fullyQualifiedTeamName;
+    }
+
+}
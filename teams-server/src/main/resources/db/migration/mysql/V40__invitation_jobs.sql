@@ -0,0 +1,15 @@
+CREATE TABLE invitation_jobs (
+  id          MEDIUMINT    NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  team_id     MEDIUMINT    NOT NULL,
+  urn_person  VARCHAR(255) NOT NULL,
+  status      VARCHAR(255) NOT NULL,
+  total       INT          NOT NULL DEFAULT 0,
+  invited     INT          NOT NULL DEFAULT 0,
+  skipped     INT          NOT NULL DEFAULT 0,
+  failed      INT          NOT NULL DEFAULT 0,
+  created     TIMESTAMP    NULL,
+  finished    TIMESTAMP    NULL,
+  FOREIGN KEY (team_id) REFERENCES teams (id)
+    ON DELETE CASCADE
+)
+  ENGINE = InnoDB;
@@ -0,0 +1,2 @@
+ALTER TABLE invitations
+  ADD INDEX invitations_timestamp_index (timestamp);
@@ -0,0 +1,16 @@
+CREATE TABLE mail_outbox (
+  id           BIGINT        NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  recipients   TEXT          NOT NULL,
+  subject      VARCHAR(255)  NOT NULL,
+  body         MEDIUMTEXT    NOT NULL,
+  status       VARCHAR(255)  NOT NULL,
+  attempts     INT           NOT NULL DEFAULT 0,
+  next_attempt TIMESTAMP     NULL,
+  claim        VARCHAR(255)  NULL,
+  claimed      TIMESTAMP     NULL,
+  last_error   VARCHAR(1024) NULL,
+  created      TIMESTAMP     NULL,
+  INDEX mail_outbox_status_next_attempt_index (status, next_attempt),
+  INDEX mail_outbox_claim_index (claim)
+)
+  ENGINE = InnoDB;
@@ -0,0 +1,6 @@
+ALTER TABLE teams ADD join_request_digest tinyint(1) NOT NULL DEFAULT '0';
+
+ALTER TABLE requests ADD notified TIMESTAMP NULL;
+UPDATE requests SET notified = COALESCE(created, CURRENT_TIMESTAMP);
+ALTER TABLE requests
+  ADD INDEX requests_notified_index (notified);
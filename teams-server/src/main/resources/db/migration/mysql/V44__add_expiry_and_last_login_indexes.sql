@@ -0,0 +1,4 @@
+ALTER TABLE memberships
+  ADD INDEX memberships_expiry_date_index (expiry_date);
+ALTER TABLE persons
+  ADD INDEX persons_last_login_date_index (last_login_date);
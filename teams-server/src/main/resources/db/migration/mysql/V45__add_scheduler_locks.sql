@@ -0,0 +1,7 @@
+CREATE TABLE scheduler_locks (
+  name         VARCHAR(255)  NOT NULL PRIMARY KEY,
+  holder       VARCHAR(255)  NOT NULL,
+  locked_at    TIMESTAMP(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  locked_until TIMESTAMP(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+)
+  ENGINE = InnoDB;
@@ -0,0 +1,8 @@
+ALTER TABLE persons
+  ADD COLUMN urn_lower VARCHAR(255) AS (LOWER(urn)) PERSISTENT;
+ALTER TABLE persons
+  ADD INDEX persons_urn_lower_index (urn_lower);
+ALTER TABLE memberships
+  ADD COLUMN urn_person_lower VARCHAR(255) AS (LOWER(urn_person)) PERSISTENT;
+ALTER TABLE memberships
+  ADD INDEX memberships_urn_person_lower_index (urn_person_lower);
@@ -0,0 +1,2 @@
+ALTER TABLE invitation_jobs ADD COLUMN node VARCHAR(255) NULL;
+ALTER TABLE invitation_jobs ADD INDEX invitation_jobs_node_status_index (node, status);
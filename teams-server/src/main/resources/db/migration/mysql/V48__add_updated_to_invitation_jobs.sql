@@ -0,0 +1,3 @@
+ALTER TABLE invitation_jobs ADD COLUMN updated TIMESTAMP NULL;
+UPDATE invitation_jobs SET updated = COALESCE(finished, created);
+ALTER TABLE invitation_jobs ADD INDEX invitation_jobs_status_updated_index (status, updated);
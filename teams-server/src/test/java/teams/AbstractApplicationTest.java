@@ -2,24 +2,31 @@ package teams;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.restassured.RestAssured;
+import org.hibernate.SessionFactory;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.server.LocalServerPort;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlConfig;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
+import teams.api.SpDashboardPrincipal;
+import teams.cache.LookupCache;
 import teams.repository.*;
 
+import javax.persistence.EntityManagerFactory;
+
 import static org.springframework.test.context.jdbc.SqlConfig.ErrorMode.FAIL_ON_ERROR;
 import static org.springframework.test.context.jdbc.SqlConfig.TransactionMode.ISOLATED;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("dev")
+@Import(StatementCountConfiguration.class)
 @Transactional
 @Sql(scripts = {"classpath:sql/clear.sql", "classpath:sql/seed.sql"},
         config = @SqlConfig(errorMode = FAIL_ON_ERROR, transactionMode = ISOLATED))
@@ -46,12 +53,38 @@ public abstract class AbstractApplicationTest implements Seed {
     @Autowired
     protected ObjectMapper objectMapper;
 
+    @Autowired
+    protected StatementCounter statementCounter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SpDashboardPrincipal spDashboardPrincipal;
+
+    @Autowired
+    private LookupCache lookupCache;
+
     @LocalServerPort
     private int serverPort;
 
     @Before
     public void before() throws Exception {
         RestAssured.port = serverPort;
+        //The seed is re-applied with plain SQL, which bypasses the second-level cache, the lookup cache and the SP
+        //Dashboard principal
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        lookupCache.clear();
+        spDashboardPrincipal.refresh();
+    }
+
+    /**
+     * @return the number of SQL statements executed by the HTTP calls of the runnable
+     */
+    protected long statementCount(Runnable runnable) {
+        statementCounter.reset();
+        runnable.run();
+        return statementCounter.total();
     }
 
 }
@@ -0,0 +1,35 @@
+package teams;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConnectionHoldStatisticsEndpointTest extends AbstractApplicationTest {
+
+    @Test
+    public void statistics() {
+        given()
+                .auth().preemptive().basic("user", "secret")
+                .when()
+                .get("api/voot/group/{id}", "demo:openconext:org:riders")
+                .then()
+                .statusCode(SC_OK);
+
+        Map<String, Map<String, Number>> statistics = given()
+                .when()
+                .get("internal/connections")
+                .then()
+                .statusCode(SC_OK)
+                .extract()
+                .as(Map.class);
+        Map<String, Number> group = statistics.get("GET /api/voot/group/{localGroupId:.+}");
+        assertNotNull(String.format("No connection hold statistics in %s", statistics), group);
+        assertTrue(group.get("requests").longValue() > 0);
+        assertTrue(group.get("maxTimeMillis").doubleValue() > 0);
+    }
+}
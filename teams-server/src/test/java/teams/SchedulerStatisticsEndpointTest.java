@@ -0,0 +1,33 @@
+package teams;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class SchedulerStatisticsEndpointTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SchedulerStatisticsEndpoint endpoint = new SchedulerStatisticsEndpoint(meterRegistry, mock(Scheduler.class));
+
+    @Test
+    public void jobWithoutRuns() {
+        meterRegistry.counter(Scheduler.FAILURES_METRIC, Scheduler.JOB_TAG, "removeExpiredMemberships").increment();
+        meterRegistry.counter(Scheduler.OVERRUNS_METRIC, Scheduler.JOB_TAG, "removeExpiredInvitations").increment();
+
+        Map<String, Object> statistics = endpoint.statistics();
+        assertEquals(2, statistics.size());
+
+        Map<String, Object> failed = (Map<String, Object>) statistics.get("removeExpiredMemberships");
+        assertEquals(0L, failed.get("runs"));
+        assertEquals(1D, failed.get("failures"));
+        assertEquals(0D, failed.get("overruns"));
+
+        Map<String, Object> overran = (Map<String, Object>) statistics.get("removeExpiredInvitations");
+        assertEquals(0L, overran.get("runs"));
+        assertEquals(1D, overran.get("overruns"));
+    }
+}
@@ -1,13 +1,23 @@
 package teams;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.util.ReflectionTestUtils;
 import teams.domain.*;
 import teams.repository.MembershipRepository;
+import teams.repository.SchedulerLockRepository;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.restassured.RestAssured.given;
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.*;
@@ -18,6 +28,12 @@ public class SchedulerTest extends AbstractApplicationTest {
     @Autowired
     private Scheduler scheduler;
 
+    @Autowired
+    private SchedulerLockRepository schedulerLockRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     public void removeExpiredMemberships() throws Exception {
         Membership membership = new Membership(
@@ -49,6 +65,88 @@ public class SchedulerTest extends AbstractApplicationTest {
         assertEquals(1, count);
     }
 
+    @Test
+    public void removeExpiredInvitationsInChunks() throws Exception {
+        Team team = teamRepository.findById(1L).get();
+        Person person = personRepository.findById(1L).get();
+        for (int i = 0; i < 5; i++) {
+            Invitation invitation = new Invitation(team, i + "@test.org", Role.MEMBER, Language.DUTCH, null, null)
+                    .addInvitationMessage(person, "Please join");
+            ReflectionTestUtils.setField(invitation, "timestamp", System.currentTimeMillis() - EXPIRY_MILLIS - (1000L * 3600));
+            invitationRepository.save(invitation);
+        }
+        ReflectionTestUtils.setField(scheduler, "purgeChunkSize", 2);
+        ReflectionTestUtils.setField(scheduler, "purgeChunkPauseMillis", 0L);
+        ReflectionTestUtils.setField(scheduler, "lockAtLeastSeconds", 0L);
+        try {
+            assertEquals(5, scheduler.removeExpiredInvitations());
+            assertEquals(0, scheduler.removeExpiredInvitations());
+        } finally {
+            ReflectionTestUtils.setField(scheduler, "purgeChunkSize", 1000);
+            ReflectionTestUtils.setField(scheduler, "purgeChunkPauseMillis", 100L);
+            ReflectionTestUtils.setField(scheduler, "lockAtLeastSeconds", 60L);
+        }
+    }
+
+    @Test
+    public void lockedByOtherNode() throws Exception {
+        Membership membership = new Membership(
+                Role.MEMBER,
+                teamRepository.findById(1L).get(),
+                personRepository.findById(6L).get(),
+                Instant.now().minus(15, ChronoUnit.DAYS),
+                MembershipOrigin.INVITATION_ACCEPTED, "John Doe");
+        membershipRepository.save(membership);
+
+        assertEquals(1, schedulerLockRepository.insertLock("removeExpiredMemberships", "other-node", 600L));
+        assertEquals(0, scheduler.removeExpiredMemberships());
+
+        //The other node died and its lock expired
+        assertEquals(1, schedulerLockRepository.releaseLock("removeExpiredMemberships", "other-node", 0L));
+        assertEquals(1, scheduler.removeExpiredMemberships());
+
+        //Nodes firing the same tick a little later skip the job
+        assertEquals(0, scheduler.removeExpiredMemberships());
+    }
+
+    @Test
+    public void overrunSkipsTick() throws Exception {
+        Map<String, AtomicBoolean> runningJobs = (Map<String, AtomicBoolean>) ReflectionTestUtils.getField(scheduler, "runningJobs");
+        runningJobs.put("removeExpiredInvitations", new AtomicBoolean(true));
+        try {
+            assertEquals(0, scheduler.removeExpiredInvitations());
+        } finally {
+            runningJobs.remove("removeExpiredInvitations");
+        }
+        given()
+                .when()
+                .get("internal/scheduler")
+                .then()
+                .statusCode(SC_OK)
+                .body("removeExpiredInvitations.overruns", greaterThan(0F));
+    }
+
+    @Test
+    public void statistics() throws Exception {
+        Person person = personRepository.findById(6L).get();
+        person.setLastLoginDate(Instant.now().minus(15, ChronoUnit.DAYS));
+        personRepository.save(person);
+
+        //The meters are shared by all tests of the application context
+        DistributionSummary rows = meterRegistry.find(Scheduler.ROWS_METRIC).tag(Scheduler.JOB_TAG, "removeOrphanPersons").summary();
+        double rowsBefore = rows == null ? 0 : rows.totalAmount();
+
+        assertEquals(1, scheduler.removeOrphanPersons());
+        given()
+                .when()
+                .get("internal/scheduler")
+                .then()
+                .statusCode(SC_OK)
+                .body("removeOrphanPersons.runs", greaterThan(0))
+                .body("removeOrphanPersons.rows", equalTo((float) (rowsBefore + 1)))
+                .body("removeOrphanPersons.running", equalTo(false));
+    }
+
     @Test
     public void testExceptionTheHardWay() throws Exception {
         removeExpiredMembershipsWithException(-1);
@@ -64,7 +162,7 @@ public class SchedulerTest extends AbstractApplicationTest {
     private void removeExpiredMembershipsWithException(int expected) {
         Object membershipRepositoryRef = ReflectionTestUtils.getField(scheduler, "membershipRepository");
         MembershipRepository membershipRepositoryMock = mock(MembershipRepository.class);
-        when(membershipRepositoryMock.deleteExpiredMemberships(anyLong())).thenThrow(new IllegalArgumentException());
+        when(membershipRepositoryMock.findExpiredMembershipIds(any(), anyLong(), any())).thenThrow(new IllegalArgumentException());
         ReflectionTestUtils.setField(scheduler, "membershipRepository", membershipRepositoryMock);
         int count = scheduler.removeExpiredMemberships();
         assertEquals(expected, count);
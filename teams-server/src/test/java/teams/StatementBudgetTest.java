@@ -0,0 +1,376 @@
+package teams;
+
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import teams.domain.ClientInvitation;
+import teams.domain.ClientJoinRequest;
+import teams.domain.ClientResendInvitation;
+import teams.domain.ExternalTeamsLinkProperties;
+import teams.domain.IdHolder;
+import teams.domain.Language;
+import teams.domain.MembershipProperties;
+import teams.domain.Role;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import static io.restassured.RestAssured.given;
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+
+/**
+ * Guards against N+1 regressions: every HTTP call must stay within the SQL statement budget that is checked in at
+ * statement-budgets.properties.
+ */
+public class StatementBudgetTest extends AbstractApplicationTest {
+
+    private static final String RECORD_PROPERTY = "statement-budgets.record";
+    private static final Properties budgets = budgets();
+    private static final TreeMap<String, Long> recorded = new TreeMap<>();
+
+    private static final String JDOE = "urn:collab:person:surfnet.nl:jdoe";
+
+    @Value("${security.user.name}")
+    private String vootUser;
+
+    @Value("${security.user.password}")
+    private String vootPassword;
+
+    @Test
+    public void myTeams() {
+        assertWithinBudget("TeamController.myTeams", () -> teamsApi(JDOE).get("api/teams/my-teams"));
+    }
+
+    @Test
+    public void teamById() {
+        assertWithinBudget("TeamController.teamById", () -> teamsApi(JDOE).get("api/teams/teams/{id}", 1L));
+    }
+
+    @Test
+    public void teamByIdAsMember() {
+        assertWithinBudget("TeamController.teamByIdAsMember",
+                () -> teamsApi("urn:collab:person:surfnet.nl:rdoe").get("api/teams/teams/{id}", 1L));
+    }
+
+    @Test
+    public void teamByPublicLink() {
+        assertWithinBudget("TeamController.teamByPublicLink",
+                () -> teamsApi(JDOE).get("api/teams/teams/public-link/{publicLink}", "wZiomLDTk3CU2FR9bRy1IFCfYSqt5AFwSAs74M1EuIQs3D"));
+    }
+
+    @Test
+    public void teamByHash() {
+        assertWithinBudget("TeamController.teamByHash", () -> teamsApi(JDOE).get("api/teams/teams/hash/{hash}", "secret"));
+    }
+
+    @Test
+    public void teamSearch() {
+        assertWithinBudget("TeamController.teamSearch",
+                () -> teamsApi(JDOE).queryParam("query", "riders").get("api/teams/teams"));
+    }
+
+    @Test
+    public void teamExistsByName() {
+        assertWithinBudget("TeamController.teamExistsByName",
+                () -> teamsApi(JDOE).queryParam("name", "riders").get("api/teams/team-exists-by-name"));
+    }
+
+    @Test
+    public void invitation() {
+        assertWithinBudget("InvitationController.invitation", () -> teamsApi(JDOE).get("api/teams/invitations/{id}", 1L));
+    }
+
+    @Test
+    public void invitationInfo() {
+        assertWithinBudget("InvitationController.invitationInfo",
+                () -> teamsApi(JDOE).get("api/teams/invitations/info/{key}", "secret"));
+    }
+
+    @Test
+    public void invite() {
+        ClientInvitation clientInvitation = new ClientInvitation(
+                1L, Role.MEMBER, Arrays.asList("test@test.org", "test2@test.org"),
+                Instant.now().plus(365, ChronoUnit.DAYS), null, "Please join", null, Language.ENGLISH);
+        assertWithinBudget("InvitationController.invite",
+                () -> teamsApi(JDOE).body(clientInvitation).post("api/teams/invitations"));
+    }
+
+    @Test
+    public void resend() {
+        assertWithinBudget("InvitationController.resend",
+                () -> teamsApi(JDOE).body(new ClientResendInvitation(1L, "Second invitation")).put("api/teams/invitations"));
+    }
+
+    @Test
+    public void inviteJob() {
+        assertWithinBudget("InvitationController.inviteJob",
+                () -> teamsApi(JDOE).body(jobInvitation(Arrays.asList("test@test.org", "test2@test.org")))
+                        .post("api/teams/invitations/jobs"));
+    }
+
+    @Test
+    public void inviteCsvJob() throws IOException {
+        byte[] invitation = objectMapper.writeValueAsBytes(jobInvitation(null));
+        assertWithinBudget("InvitationController.inviteCsvJob",
+                () -> given()
+                        .header("name-id", JDOE)
+                        .multiPart("invitation", "invitation.json", invitation, "application/json")
+                        .multiPart("file", "emails.csv", "email\ntest@test.org\n".getBytes(StandardCharsets.UTF_8), "text/csv")
+                        .when()
+                        .post("api/teams/invitations/jobs/csv"));
+    }
+
+    @Test
+    public void invitationJob() {
+        Integer jobId = teamsApi(JDOE).body(jobInvitation(Arrays.asList("test@test.org")))
+                .post("api/teams/invitations/jobs")
+                .then()
+                .statusCode(SC_OK)
+                .extract().path("id");
+        assertWithinBudget("InvitationController.invitationJob", () -> teamsApi(JDOE).get("api/teams/invitations/jobs/{id}", jobId));
+    }
+
+    @Test
+    public void joinRequest() {
+        assertWithinBudget("JoinRequestController.joinRequest", () -> teamsApi(JDOE).get("api/teams/join-requests/{id}", 3L));
+    }
+
+    @Test
+    public void join() {
+        assertWithinBudget("JoinRequestController.join",
+                () -> teamsApi("urn:collab:person:surfnet.nl:tdoe").body(new ClientJoinRequest(1L, "Please let me join"))
+                        .post("api/teams/join-requests"));
+    }
+
+    @Test
+    public void approveJoinRequest() {
+        assertWithinBudget("JoinRequestController.approve",
+                () -> teamsApi(JDOE).body(new IdHolder(2L)).put("api/teams/join-requests/approve"));
+    }
+
+    @Test
+    public void rejectJoinRequest() {
+        assertWithinBudget("JoinRequestController.reject",
+                () -> teamsApi(JDOE).delete("api/teams/join-requests/reject/{id}", 1L));
+    }
+
+    @Test
+    public void deleteJoinRequest() {
+        assertWithinBudget("JoinRequestController.delete",
+                () -> teamsApi("urn:collab:person:surfnet.nl:mdoe").delete("api/teams/join-requests/{id}", 2L));
+    }
+
+    @Test
+    public void membership() {
+        assertWithinBudget("MembershipController.membership", () -> teamsApi(JDOE).get("api/teams/memberships/{teamId}", 1L));
+    }
+
+    @Test
+    public void publicLinkInfo() {
+        assertWithinBudget("PublicLinkController.publicLinkInfo",
+                () -> teamsApi(JDOE).get("api/teams/public-links/{publicLink}", "wZiomLDTk3CU2FR9bRy1IFCfYSqt5AFwSAs74M1EuIQs3D"));
+    }
+
+    @Test
+    public void linkedTeams() {
+        assertWithinBudget("ExternalTeamController.linkedTeams",
+                () -> teamsApi(JDOE).get("api/teams/external-teams/linked-teams"));
+    }
+
+    @Test
+    public void bulkLink() {
+        assertWithinBudget("ExternalTeamController.bulkLink",
+                () -> teamsApi(JDOE).body(new ExternalTeamsLinkProperties(1L,
+                                Arrays.asList("urn:collab:group:example.org:name2", "urn:collab:group:example.org:name3",
+                                        "urn:collab:group:example.org:name4"),
+                                Arrays.asList("urn:collab:group:example.org:name1", "urn:collab:group:example.org:name5")))
+                        .put("api/teams/external-teams/bulk-link"));
+    }
+
+    @Test
+    public void me() {
+        assertWithinBudget("UserController.me", () -> teamsApi(JDOE).get("api/teams/users/me"));
+    }
+
+    @Test
+    public void autocomplete() {
+        assertWithinBudget("UserController.autocomplete",
+                () -> teamsApi(JDOE).queryParam("query", "doe").get("api/teams/users"));
+    }
+
+    @Test
+    public void vootFindByLocalGroupId() {
+        assertWithinBudget("VootApiController.findByLocalGroupId",
+                () -> vootApi().get("api/voot/group/{id}", "demo:openconext:org:riders"));
+    }
+
+    @Test
+    public void vootGetMembers() {
+        assertWithinBudget("VootApiController.getMembers",
+                () -> vootApi().get("api/voot/members/{id}", "demo:openconext:org:riders"));
+    }
+
+    @Test
+    public void vootGetGroupsForMember() {
+        assertWithinBudget("VootApiController.getGroupsForMember",
+                () -> vootApi().get("api/voot/user/{uid}/groups", JDOE));
+    }
+
+    @Test
+    public void vootGetGroupsForMemberAndTeamUrn() {
+        assertWithinBudget("VootApiController.getGroupsForMemberAndTeamUrn",
+                () -> vootApi().get("api/voot/user/{uid}/groups/{groupId}", JDOE, "demo:openconext:org:riders"));
+    }
+
+    @Test
+    public void vootGetAllGroups() {
+        assertWithinBudget("VootApiController.getAllGroups", () -> vootApi().get("api/voot/groups"));
+    }
+
+    @Test
+    public void vootLinkedLocalTeamsGroup() {
+        assertWithinBudget("VootApiController.linkedLocalTeamsGroup",
+                () -> vootApi()
+                        .queryParam("externalGroupIds", "urn:collab:group:example.org:name1,urn:collab:group:example.org:name2")
+                        .get("api/voot/linked-locals"));
+    }
+
+    @Test
+    public void vootLinkedExternalGroupIds() {
+        assertWithinBudget("VootApiController.linkedExternalGroupIds",
+                () -> vootApi().queryParam("teamId", "demo:openconext:org:riders").get("api/voot/linked-externals"));
+    }
+
+    @Test
+    public void spDashboardTeamByUrn() {
+        assertWithinBudget("SpDashboardController.teamByUrn",
+                () -> given().auth().preemptive().basic("spdashboard", "secret")
+                        .get("api/spdashboard/teams/{urn}", "demo:openconext:org:riders"));
+    }
+
+    @Test
+    public void spDashboardTeamSummary() {
+        assertWithinBudget("SpDashboardController.teamSummary",
+                () -> spDashboardApi().get("api/spdashboard/teams/{urn}/summary", "demo:openconext:org:riders"));
+    }
+
+    @Test
+    public void spDashboardMembers() {
+        assertWithinBudget("SpDashboardController.members",
+                () -> spDashboardApi().get("api/spdashboard/teams/{urn}/members", "demo:openconext:org:riders"));
+    }
+
+    @Test
+    public void spDashboardInvitations() {
+        assertWithinBudget("SpDashboardController.invitations",
+                () -> spDashboardApi().get("api/spdashboard/teams/{urn}/invitations", "demo:openconext:org:riders"));
+    }
+
+    @Test
+    public void spDashboardChangeMemberships() {
+        assertWithinBudget("SpDashboardController.changeMemberships",
+                () -> spDashboardApi().header(CONTENT_TYPE, "application/json")
+                        .body(Arrays.asList(new MembershipProperties(6L, Role.ADMIN), new MembershipProperties(10L, Role.ADMIN)))
+                        .put("api/spdashboard/memberships/bulk"));
+    }
+
+    @Test
+    public void spDashboardDeleteMemberships() {
+        assertWithinBudget("SpDashboardController.deleteMemberships",
+                () -> spDashboardApi().header(CONTENT_TYPE, "application/json")
+                        .body(Arrays.asList(6L, 10L))
+                        .post("api/spdashboard/memberships/bulk-delete"));
+    }
+
+    @Test
+    public void spDashboardResendInvitations() {
+        assertWithinBudget("SpDashboardController.resendInvitations",
+                () -> spDashboardApi().header(CONTENT_TYPE, "application/json")
+                        .body(Arrays.asList(new ClientResendInvitation(1L, "Please join"), new ClientResendInvitation(2L, "Please join")))
+                        .put("api/spdashboard/invites/bulk"));
+    }
+
+    @Test
+    public void lifeCyclePreview() {
+        assertWithinBudget("UserLifeCycleController.preview",
+                () -> given().auth().preemptive().basic("life", "secret").get("deprovision/{user}", JDOE));
+    }
+
+    @Test
+    public void lifeCycleBulkDeprovision() {
+        assertWithinBudget("UserLifeCycleController.bulkDeprovision",
+                () -> given().auth().preemptive().basic("life", "secret")
+                        .header(CONTENT_TYPE, "application/json")
+                        .body(Arrays.asList(JDOE, "urn:collab:person:surfnet.nl:mdoe"))
+                        .post("deprovision"));
+    }
+
+    @AfterClass
+    public static void writeRecordedCounts() throws IOException {
+        if (Boolean.getBoolean(RECORD_PROPERTY)) {
+            Properties properties = new Properties();
+            recorded.forEach((endpoint, count) -> properties.setProperty(endpoint, String.valueOf(count)));
+            try (OutputStream outputStream = new FileOutputStream("target/statement-budgets.properties")) {
+                properties.store(outputStream, "Measured SQL statements per HTTP call");
+            }
+        }
+    }
+
+    private RequestSpecification teamsApi(String urn) {
+        return given()
+                .header(CONTENT_TYPE, "application/json")
+                .header("name-id", urn)
+                .when();
+    }
+
+    private RequestSpecification spDashboardApi() {
+        return given().auth().preemptive().basic("spdashboard", "secret").when();
+    }
+
+    private ClientInvitation jobInvitation(List<String> emails) {
+        return new ClientInvitation(1L, Role.MEMBER, emails, Instant.now().plus(365, ChronoUnit.DAYS), null,
+                "Please join", null, Language.ENGLISH);
+    }
+
+    private RequestSpecification vootApi() {
+        return given().auth().preemptive().basic(vootUser, vootPassword).when();
+    }
+
+    private void assertWithinBudget(String endpoint, Supplier<Response> call) {
+        String budget = budgets.getProperty(endpoint);
+        assertNotNull(String.format("No statement budget for %s in statement-budgets.properties", endpoint), budget);
+
+        long count = statementCount(() -> call.get().then().statusCode(SC_OK));
+        recorded.put(endpoint, count);
+        if (Boolean.getBoolean(RECORD_PROPERTY)) {
+            return;
+        }
+        assertTrue(String.format("%s executed %s SQL statements %s, budget is %s",
+                        endpoint, count, statementCounter.countsByType(), budget),
+                count <= Long.parseLong(budget));
+    }
+
+    private static Properties budgets() {
+        try {
+            return PropertiesLoaderUtils.loadProperties(new ClassPathResource("statement-budgets.properties"));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
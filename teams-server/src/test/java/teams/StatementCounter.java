@@ -0,0 +1,60 @@
+package teams;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the SQL statements - grouped by type - that are executed on a thread that is recording. The HTTP request
+ * threads are recording for the duration of a request, see StatementCountConfiguration. A JDBC batch counts as
+ * one statement as it is one round trip.
+ */
+public class StatementCounter implements QueryExecutionListener {
+
+    private final ThreadLocal<Boolean> recording = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private final Map<QueryType, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    public void startRecording() {
+        recording.set(Boolean.TRUE);
+    }
+
+    public void stopRecording() {
+        recording.remove();
+    }
+
+    public void reset() {
+        counts.clear();
+    }
+
+    public long total() {
+        return counts.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public Map<QueryType, Long> countsByType() {
+        Map<QueryType, Long> result = new EnumMap<>(QueryType.class);
+        counts.forEach((type, count) -> result.put(type, count.get()));
+        return result;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        //only interested in completed statements
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (recording.get()) {
+            queryInfoList.forEach(queryInfo -> counts
+                    .computeIfAbsent(QueryUtils.getQueryType(queryInfo.getQuery()), type -> new AtomicLong())
+                    .incrementAndGet());
+        }
+    }
+}
@@ -7,16 +7,20 @@ import teams.Mocks;
 import teams.Seed;
 import teams.domain.ExternalTeam;
 import teams.domain.ExternalTeamProperties;
+import teams.domain.ExternalTeamsLinkProperties;
 import teams.domain.Team;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
 import static io.restassured.RestAssured.given;
 import static java.util.Collections.singletonList;
+import static org.apache.http.HttpStatus.SC_BAD_REQUEST;
 import static org.apache.http.HttpStatus.SC_NOT_FOUND;
 import static org.apache.http.HttpStatus.SC_OK;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItems;
 import static org.junit.Assert.assertEquals;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
@@ -145,4 +149,44 @@ public class ExternalTeamControllerTest extends AbstractApplicationTest implemen
                 .then()
                 .statusCode(SC_NOT_FOUND);
     }
+
+    @Test
+    public void bulkLink() throws Exception {
+        given()
+                .header(CONTENT_TYPE, "application/json")
+                .header("name-id", "urn:collab:person:surfnet.nl:jdoe")
+                .body(new ExternalTeamsLinkProperties(1L,
+                        Arrays.asList("urn:collab:group:example.org:name2", "urn:collab:group:example.org:name3",
+                                "urn:collab:group:example.org:name4"),
+                        Arrays.asList("urn:collab:group:example.org:name1", "urn:collab:group:example.org:name5")))
+                .when()
+                .put("api/teams/external-teams/bulk-link")
+                .then()
+                .statusCode(SC_OK)
+                .body("linked", contains("urn:collab:group:example.org:name3", "urn:collab:group:example.org:name4"))
+                .body("delinked", contains("urn:collab:group:example.org:name1"))
+                .body("externalTeams", contains("urn:collab:group:example.org:name2",
+                        "urn:collab:group:example.org:name3", "urn:collab:group:example.org:name4"));
+
+        assertEquals(3, externalTeamRepository.findByTeamsUrn("demo:openconext:org:riders").size());
+        //name1 was only linked to riders
+        assertEquals(0,
+                externalTeamRepository.findByIdentifierIn(singletonList("urn:collab:group:example.org:name1")).size());
+    }
+
+    @Test
+    public void bulkLinkNotMemberOfExternalTeam() throws Exception {
+        given()
+                .header(CONTENT_TYPE, "application/json")
+                .header("name-id", "urn:collab:person:surfnet.nl:jdoe")
+                .body(new ExternalTeamsLinkProperties(1L,
+                        Arrays.asList("urn:collab:group:example.org:name3", "urn:collab:group:example.org:name99"),
+                        singletonList("urn:collab:group:example.org:name1")))
+                .when()
+                .put("api/teams/external-teams/bulk-link")
+                .then()
+                .statusCode(SC_BAD_REQUEST);
+
+        assertEquals(2, externalTeamRepository.findByTeamsUrn("demo:openconext:org:riders").size());
+    }
 }
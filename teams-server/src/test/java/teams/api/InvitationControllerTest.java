@@ -1,11 +1,15 @@
 package teams.api;
 
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
 import teams.AbstractApplicationTest;
 import teams.domain.*;
 import teams.exception.NotAllowedException;
+import teams.repository.InvitationJobRepository;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
@@ -16,13 +20,22 @@ import java.util.stream.StreamSupport;
 import static io.restassured.RestAssured.given;
 import static java.util.stream.Collectors.toList;
 import static org.apache.http.HttpStatus.*;
+import static org.awaitility.Awaitility.await;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 
 public class InvitationControllerTest extends AbstractApplicationTest {
 
+    @Autowired
+    private InvitationJobRepository invitationJobRepository;
+
+    @Autowired
+    private BulkInvitationService bulkInvitationService;
+
     @Test
     public void invitationCanOnlyBeRetrievedByNonMember() {
         given()
@@ -85,6 +98,134 @@ public class InvitationControllerTest extends AbstractApplicationTest {
         invitationMessage.getMessage().equals("Please join");
     }
 
+    @Test
+    public void inviteJob() {
+        Integer jobId = submitInvitationJob(Arrays.asList(
+                "new1@test.org", "NEW1@test.org", "ronald.doe@example.org", "Test@example.com", "new2@test.org"));
+
+        await().until(() -> !Arrays.asList(InvitationJobStatus.PENDING.name(), InvitationJobStatus.RUNNING.name())
+                .contains(invitationJobStatus(jobId)));
+
+        given()
+                .header("name-id", "urn:collab:person:surfnet.nl:jdoe")
+                .when()
+                .get("api/teams/invitations/jobs/{id}", jobId)
+                .then()
+                .statusCode(SC_OK)
+                .body("status", equalTo(InvitationJobStatus.FINISHED.name()))
+                .body("total", equalTo(5))
+                .body("invited", equalTo(2))
+                .body("skipped", equalTo(3))
+                .body("failed", equalTo(0));
+
+        List<String> emails = StreamSupport.stream(invitationRepository.findAll().spliterator(), false)
+                .filter(i -> i.getTeam().getId().equals(1L))
+                .map(Invitation::getEmail)
+                .collect(toList());
+        assertEquals(3, emails.size());
+        assertTrue(emails.containsAll(Arrays.asList("test@example.com", "new1@test.org", "new2@test.org")));
+    }
+
+    @Test
+    public void inviteCsvJob() throws Exception {
+        ClientInvitation clientInvitation = new ClientInvitation(
+                1L, Role.MEMBER, null, Instant.now().plus(365, ChronoUnit.DAYS), null, "Please join", null,
+                Language.ENGLISH);
+        String csv = "email\n\"new1@test.org\"\nnew2@test.org,NEW1@test.org\nronald.doe@example.org\n";
+        Integer jobId = given()
+                .header("name-id", "urn:collab:person:surfnet.nl:jdoe")
+                .multiPart("invitation", "invitation.json", objectMapper.writeValueAsBytes(clientInvitation), "application/json")
+                .multiPart("file", "emails.csv", csv.getBytes(StandardCharsets.UTF_8), "text/csv")
+                .when()
+                .post("api/teams/invitations/jobs/csv")
+                .then()
+                .statusCode(SC_OK)
+                .extract().path("id");
+
+        await().until(() -> invitationJobStatus(jobId).equals(InvitationJobStatus.FINISHED.name()));
+
+        given()
+                .header("name-id", "urn:collab:person:surfnet.nl:jdoe")
+                .when()
+                .get("api/teams/invitations/jobs/{id}", jobId)
+                .then()
+                .statusCode(SC_OK)
+                .body("total", equalTo(5))
+                .body("invited", equalTo(2))
+                .body("skipped", equalTo(3))
+                .body("failed", equalTo(0));
+    }
+
+    @Test
+    public void invitationJobNotAllowed() {
+        Integer jobId = submitInvitationJob(Arrays.asList("new1@test.org"));
+
+        given()
+                .header("name-id", "urn:collab:person:surfnet.nl:rdoe")
+                .when()
+                .get("api/teams/invitations/jobs/{id}", jobId)
+                .then()
+                .statusCode(SC_BAD_REQUEST)
+                .body("exception", equalTo(NotAllowedException.class.getName()));
+
+        await().until(() -> invitationJobStatus(jobId).equals(InvitationJobStatus.FINISHED.name()));
+    }
+
+    @Test
+    public void staleInvitationJobsFail() {
+        Instant stale = Instant.now().minus(1, ChronoUnit.HOURS);
+        InvitationJob running = new InvitationJob(1L, "urn:collab:person:surfnet.nl:jdoe", "dead-node");
+        running.start();
+        ReflectionTestUtils.setField(running, "updated", stale);
+        Long runningId = invitationJobRepository.save(running).getId();
+
+        InvitationJob pending = new InvitationJob(1L, "urn:collab:person:surfnet.nl:jdoe", "dead-node");
+        ReflectionTestUtils.setField(pending, "updated", stale);
+        Long pendingId = invitationJobRepository.save(pending).getId();
+
+        //Queued on this node, which is alive
+        InvitationJob queued = new InvitationJob(1L, "urn:collab:person:surfnet.nl:jdoe",
+                (String) ReflectionTestUtils.getField(bulkInvitationService, "node"));
+        ReflectionTestUtils.setField(queued, "updated", stale);
+        Long queuedId = invitationJobRepository.save(queued).getId();
+        bulkInvitationService.heartbeat();
+
+        Long liveId = invitationJobRepository.save(new InvitationJob(1L, "urn:collab:person:surfnet.nl:jdoe", "live-node")).getId();
+
+        assertEquals(2, bulkInvitationService.failStaleJobs());
+
+        assertEquals(InvitationJobStatus.FAILED, invitationJobRepository.findById(runningId).get().getStatus());
+        assertEquals(InvitationJobStatus.FAILED, invitationJobRepository.findById(pendingId).get().getStatus());
+        assertNotNull(invitationJobRepository.findById(pendingId).get().getFinished());
+        assertEquals(InvitationJobStatus.PENDING, invitationJobRepository.findById(queuedId).get().getStatus());
+        assertEquals(InvitationJobStatus.PENDING, invitationJobRepository.findById(liveId).get().getStatus());
+    }
+
+    private Integer submitInvitationJob(List<String> emails) {
+        ClientInvitation clientInvitation = new ClientInvitation(
+                1L, Role.MEMBER, emails, Instant.now().plus(365, ChronoUnit.DAYS), null, "Please join", null,
+                Language.ENGLISH);
+        return given()
+                .header(CONTENT_TYPE, "application/json")
+                .header("name-id", "urn:collab:person:surfnet.nl:jdoe")
+                .body(clientInvitation)
+                .when()
+                .post("api/teams/invitations/jobs")
+                .then()
+                .statusCode(SC_OK)
+                .extract().path("id");
+    }
+
+    private String invitationJobStatus(Integer jobId) {
+        return given()
+                .header("name-id", "urn:collab:person:surfnet.nl:jdoe")
+                .when()
+                .get("api/teams/invitations/jobs/{id}", jobId)
+                .then()
+                .statusCode(SC_OK)
+                .extract().path("status");
+    }
+
     @Test
     public void invitationInfo() throws Exception {
         given()
@@ -194,7 +335,7 @@ public class InvitationControllerTest extends AbstractApplicationTest {
                 .then()
                 .statusCode(SC_OK);
 
-        assertFalse(invitationRepository.findFirstByInvitationHash("secret").isPresent());
+        assertFalse(invitationRepository.findWithTeamByInvitationHash("secret").isPresent());
     }
 
 }
\ No newline at end of file
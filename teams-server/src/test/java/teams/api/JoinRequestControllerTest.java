@@ -1,10 +1,12 @@
 package teams.api;
 
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import teams.AbstractApplicationTest;
 import teams.domain.*;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import static io.restassured.RestAssured.given;
 import static org.apache.http.HttpStatus.*;
@@ -14,6 +16,9 @@ import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 
 public class JoinRequestControllerTest extends AbstractApplicationTest {
 
+    @Autowired
+    private JoinRequestDigestService joinRequestDigestService;
+
     @Test
     public void joinRequest() throws Exception {
         given()
@@ -125,6 +130,68 @@ public class JoinRequestControllerTest extends AbstractApplicationTest {
         assertEquals("", joinRequest.getHtmlMessage());
     }
 
+    @Test
+    public void joinWithDigest() throws Exception {
+        joinRequestDigest(true);
+
+        JoinRequest joinRequest = doJoin(new ClientJoinRequest(1L, "Join request"));
+        assertNull(joinRequest.getNotified());
+
+        //one digest for each of the ADMIN and OWNER of the team
+        assertEquals(2, joinRequestDigestService.sendDigests());
+        assertTrue(joinRequestRepository.findByNotifiedIsNullOrderByTeamId().isEmpty());
+        assertEquals(0, joinRequestDigestService.sendDigests());
+    }
+
+    @Test
+    public void joinWithDigestTurnedOff() throws Exception {
+        joinRequestDigest(true);
+
+        JoinRequest joinRequest = doJoin(new ClientJoinRequest(1L, "Join request"));
+        assertNull(joinRequest.getNotified());
+
+        joinRequestDigest(false);
+
+        //the request queued while in digest mode is still mailed
+        assertEquals(2, joinRequestDigestService.sendDigests());
+        assertTrue(joinRequestRepository.findByNotifiedIsNullOrderByTeamId().isEmpty());
+    }
+
+    @Test
+    public void joinWithDigestAcrossTeams() throws Exception {
+        //rdoe is admin of both gliders and masters, tdoe only of gliders
+        joinRequestDigest(3L, "urn:collab:person:surfnet.nl:rdoe", true);
+        joinRequestDigest(4L, "urn:collab:person:surfnet.nl:rdoe", true);
+
+        Stream.of(3L, 4L).forEach(teamId -> given()
+                .header(CONTENT_TYPE, "application/json")
+                .header("name-id", "urn:collab:person:surfnet.nl:mdoe")
+                .body(new ClientJoinRequest(teamId, "Join request"))
+                .when()
+                .post("api/teams/join-requests")
+                .then()
+                .statusCode(SC_OK));
+
+        //one digest for rdoe with both requests and one for tdoe
+        assertEquals(2, joinRequestDigestService.sendDigests());
+        assertTrue(joinRequestRepository.findByNotifiedIsNullOrderByTeamId().isEmpty());
+    }
+
+    private void joinRequestDigest(boolean joinRequestDigest) {
+        joinRequestDigest(1L, "urn:collab:person:surfnet.nl:jdoe", joinRequestDigest);
+    }
+
+    private void joinRequestDigest(Long teamId, String nameId, boolean joinRequestDigest) {
+        given()
+                .header(CONTENT_TYPE, "application/json")
+                .header("name-id", nameId)
+                .body(new TeamProperties(teamId, "description", null, true, true, false, joinRequestDigest))
+                .when()
+                .put("api/teams/teams")
+                .then()
+                .statusCode(SC_OK);
+    }
+
     private JoinRequest doJoin(ClientJoinRequest clientJoinRequest) {
         given()
                 .header(CONTENT_TYPE, "application/json")
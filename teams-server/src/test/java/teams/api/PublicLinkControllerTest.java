@@ -1,15 +1,23 @@
 package teams.api;
 
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import teams.AbstractApplicationTest;
+import teams.cache.LookupCache;
 import teams.domain.Membership;
 
+import javax.cache.CacheManager;
 import java.util.Optional;
 
 import static io.restassured.RestAssured.given;
 import static org.apache.http.HttpStatus.SC_NOT_FOUND;
 import static org.apache.http.HttpStatus.SC_OK;
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 
@@ -18,6 +26,15 @@ public class PublicLinkControllerTest extends AbstractApplicationTest {
     private static final String PUBLIC_LINK_SECRET = "wZiomLDTk3CU2FR9bRy1IFCfYSqt5AFwSAs74M1EuIQs3D";
     private static final String PUBLIC_LINK_SECRET_DISABLED = "ErtOpeSiYdEluAMd53CXs4TnN3RyrHUIHdaxImw3q1A3D";
 
+    @Autowired
+    private CacheManager secondLevelCacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Test
     public void publicLinkNotFound() {
         given()
@@ -29,6 +46,48 @@ public class PublicLinkControllerTest extends AbstractApplicationTest {
                 .statusCode(SC_NOT_FOUND);
     }
 
+    @Test
+    public void publicLinkNotFoundIsCached() {
+        long first = statementCount(this::publicLinkNotFound);
+        long second = statementCount(this::publicLinkNotFound);
+        assertTrue(second < first);
+    }
+
+    @Test
+    public void publicLinkReset() {
+        publicLink();
+        given()
+                .header(CONTENT_TYPE, "application/json")
+                .header("name-id", "urn:collab:person:surfnet.nl:jdoe")
+                .when()
+                .put("api/teams/teams/reset-public-link/{id}", 1L)
+                .then()
+                .statusCode(SC_OK);
+        given()
+                .header(CONTENT_TYPE, "application/json")
+                .header("name-id", "urn:collab:person:surfnet.nl:rdoe")
+                .when()
+                .get("api/teams/public-links/{publicLink}", PUBLIC_LINK_SECRET)
+                .then()
+                .statusCode(SC_NOT_FOUND);
+    }
+
+    @Test
+    public void publicLinkResetEvictsLookup() {
+        publicLink();
+        assertTrue(secondLevelCacheManager.getCache(LookupCache.PUBLIC_LINKS).containsKey(PUBLIC_LINK_SECRET));
+
+        given()
+                .header(CONTENT_TYPE, "application/json")
+                .header("name-id", "urn:collab:person:surfnet.nl:jdoe")
+                .when()
+                .put("api/teams/teams/reset-public-link/{id}", 1L)
+                .then()
+                .statusCode(SC_OK);
+
+        assertFalse(secondLevelCacheManager.getCache(LookupCache.PUBLIC_LINKS).containsKey(PUBLIC_LINK_SECRET));
+    }
+
     @Test
     public void publicLink() {
         given()
@@ -57,6 +116,25 @@ public class PublicLinkControllerTest extends AbstractApplicationTest {
         assertTrue(membership.isPresent());
     }
 
+    @Test
+    public void acceptDisabledOnOtherNode() {
+        publicLink();
+
+        //The cached lookup of this node still refers to the team
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.update("UPDATE teams SET public_link_disabled = 1 WHERE id = 1"));
+
+        given()
+                .header(CONTENT_TYPE, "application/json")
+                .header("name-id", "urn:collab:person:surfnet.nl:unknown")
+                .when()
+                .put("api/teams/public-links/{publicLink}", PUBLIC_LINK_SECRET)
+                .then()
+                .statusCode(SC_NOT_FOUND);
+    }
+
     @Test
     public void acceptNotFound() throws Exception {
         given()
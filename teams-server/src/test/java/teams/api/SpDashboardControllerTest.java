@@ -16,10 +16,16 @@ import java.util.stream.StreamSupport;
 import static io.restassured.RestAssured.given;
 import static java.util.stream.Collectors.toList;
 import static org.apache.http.HttpStatus.SC_CREATED;
+import static org.apache.http.HttpStatus.SC_NOT_FOUND;
 import static org.apache.http.HttpStatus.SC_OK;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 
 public class SpDashboardControllerTest extends AbstractApplicationTest {
@@ -89,6 +95,26 @@ public class SpDashboardControllerTest extends AbstractApplicationTest {
         assertEquals(2, invitation.getInvitationMessages().size());
     }
 
+    @Test
+    public void principalIsResolvedOnce() {
+        long first = statementCount(this::doResend);
+        long second = statementCount(this::doResend);
+        //Only the first call looks up and creates the SP Dashboard person
+        assertTrue(String.format("Expected less statements, first %s second %s", first, second), second < first);
+        assertEquals(1, personRepository.findByUrnIgnoreCase(spDashboardUser).stream().count());
+    }
+
+    private void doResend() {
+        given()
+                .header(CONTENT_TYPE, "application/json")
+                .auth().preemptive().basic("spdashboard", "secret")
+                .body(new ClientResendInvitation(1L, "Another invitation"))
+                .when()
+                .put("api/spdashboard/invites")
+                .then()
+                .statusCode(SC_CREATED);
+    }
+
     @Test
     public void deleteMembership() throws Exception {
         given()
@@ -132,6 +158,130 @@ public class SpDashboardControllerTest extends AbstractApplicationTest {
         assertEquals(1, ((List) team.get("invitations")).size());
     }
 
+    @Test
+    public void teamSummary() {
+        given()
+                .auth().preemptive().basic("spdashboard", "secret")
+                .when()
+                .get("api/spdashboard/teams/{urn}/summary", "demo:openconext:org:riders")
+                .then()
+                .statusCode(SC_OK)
+                .body("name", equalTo("riders"))
+                .body("membershipCount", equalTo(2))
+                .body("joinRequestsCount", equalTo(2))
+                .body("pendingInvitationsCount", equalTo(1))
+                .body("admins.name", hasItems("John Doe", "Owner User"))
+                .body("memberships", nullValue());
+    }
+
+    @Test
+    public void teamSummaryNotFound() {
+        given()
+                .auth().preemptive().basic("spdashboard", "secret")
+                .when()
+                .get("api/spdashboard/teams/{urn}/summary", "nope")
+                .then()
+                .statusCode(SC_NOT_FOUND);
+    }
+
+    @Test
+    public void members() {
+        given()
+                .auth().preemptive().basic("spdashboard", "secret")
+                .queryParam("size", 2)
+                .queryParam("page", 1)
+                .when()
+                .get("api/spdashboard/teams/{urn}/members", "demo:openconext:org:riders")
+                .then()
+                .statusCode(SC_OK)
+                .body("totalElements", equalTo(3))
+                .body("totalPages", equalTo(2))
+                .body("content.size()", equalTo(1))
+                .body("content[0].urnPerson", equalTo("urn:collab:person:example.com:owner"))
+                .body("content[0].role", equalTo("OWNER"));
+    }
+
+    @Test
+    public void pendingInvitations() {
+        given()
+                .auth().preemptive().basic("spdashboard", "secret")
+                .when()
+                .get("api/spdashboard/teams/{urn}/invitations", "demo:openconext:org:riders")
+                .then()
+                .statusCode(SC_OK)
+                .body("totalElements", equalTo(1))
+                .body("content[0].email", equalTo("test@example.com"))
+                .body("content[0].intendedRole", equalTo("MANAGER"));
+    }
+
+    @Test
+    public void changeMemberships() {
+        List<MembershipProperties> body = Arrays.asList(
+                new MembershipProperties(6L, Role.ADMIN),
+                new MembershipProperties(-1L, Role.ADMIN),
+                new MembershipProperties(10L, null));
+        given()
+                .auth().preemptive().basic("spdashboard", "secret")
+                .body(body)
+                .header(CONTENT_TYPE, "application/json")
+                .when()
+                .put("api/spdashboard/memberships/bulk")
+                .then()
+                .statusCode(SC_OK)
+                .body("id", contains(6, -1, 10))
+                .body("status", contains("OK", "NOT_FOUND", "FAILED"));
+
+        assertEquals(Role.ADMIN, membershipRepository.findById(6L).get().getRole());
+        assertEquals(Role.MEMBER, membershipRepository.findById(10L).get().getRole());
+    }
+
+    @Test
+    public void deleteMemberships() {
+        given()
+                .auth().preemptive().basic("spdashboard", "secret")
+                .body(Arrays.asList(6L, 10L, -1L))
+                .header(CONTENT_TYPE, "application/json")
+                .when()
+                .post("api/spdashboard/memberships/bulk-delete")
+                .then()
+                .statusCode(SC_OK)
+                .body("status", contains("OK", "OK", "NOT_FOUND"));
+
+        assertFalse(membershipRepository.findById(6L).isPresent());
+        assertFalse(membershipRepository.findById(10L).isPresent());
+    }
+
+    @Test
+    public void resendInvitations() {
+        given()
+                .auth().preemptive().basic("spdashboard", "secret")
+                .body(Arrays.asList(new ClientResendInvitation(1L, "Please join"), new ClientResendInvitation(-1L, null)))
+                .header(CONTENT_TYPE, "application/json")
+                .when()
+                .put("api/spdashboard/invites/bulk")
+                .then()
+                .statusCode(SC_OK)
+                .body("status", contains("OK", "NOT_FOUND"));
+
+        assertEquals(2, invitationRepository.findById(1L).get().getInvitationMessages().size());
+    }
+
+    @Test
+    public void teamByFullUrnFixedStatementCount() {
+        long riders = statementCount(() -> doTeamByFullUrn("demo:openconext:org:riders"));
+        long wolves = statementCount(() -> doTeamByFullUrn("demo:openconext:org:wolves"));
+        assertEquals(wolves, riders);
+    }
+
+    private void doTeamByFullUrn(String urn) {
+        given()
+                .auth().preemptive().basic("spdashboard", "secret")
+                .when()
+                .get("api/spdashboard/teams/{urn}", urn)
+                .then()
+                .statusCode(SC_OK);
+    }
+
     @Test
     public void teamByFullUrn404() {
         String urn = "urn:collab:group:demo.openconext.org:demo:openconext:org:nope";
@@ -185,6 +335,38 @@ public class SpDashboardControllerTest extends AbstractApplicationTest {
         assertFalse(teamRepository.findByUrn("demo:openconext:org:riders").isPresent());
     }
 
+    @Test
+    public void createTeamAfterDeprovisionOfPrincipal() {
+        createTeamByName("first team");
+
+        given()
+                .auth().preemptive().basic("life", "secret")
+                .when()
+                .delete("deprovision/{user}", spDashboardUser)
+                .then()
+                .statusCode(SC_OK)
+                .body("data", empty());
+
+        //The principal is not deprovisioned, so the invitation message of the next team refers to the same person
+        createTeamByName("second team");
+
+        Person person = personRepository.findByUrnIgnoreCase(spDashboardUser).get();
+        Team team = teamRepository.findByUrn("demo:openconext:org:second_team").get();
+        assertEquals(person.getId(), team.getInvitations().iterator().next().getInvitationMessages().iterator().next().getPerson().getId());
+    }
+
+    private void createTeamByName(String name) {
+        given()
+                .auth().preemptive().basic("spdashboard", "secret")
+                .body(new NewTeamProperties(name, "Team champions ", null, true, true, false,
+                        Collections.singletonMap("test@test.com", "ADMIN"), Role.ADMIN.name(), "Please..", Language.DUTCH))
+                .header(CONTENT_TYPE, "application/json")
+                .when()
+                .post("api/spdashboard/teams")
+                .then()
+                .statusCode(SC_OK);
+    }
+
     @Test
     public void testRemoveOrphanPersons() {
         //First ensure the dashboard user is created
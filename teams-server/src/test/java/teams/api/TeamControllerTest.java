@@ -65,6 +65,30 @@ public class TeamControllerTest extends AbstractApplicationTest {
                 .body("externalTeams.name", hasItems("name1", "name2"));
     }
 
+    @Test
+    public void teamByIdFixedStatementCount() {
+        //riders has more members, join requests and external teams than wolves
+        long riders = statementCount(() -> doTeamById("urn:collab:person:surfnet.nl:jdoe", 1L));
+        long wolves = statementCount(() -> doTeamById("urn:collab:person:surfnet.nl:wdoe", 5L));
+        assertEquals(wolves, riders);
+    }
+
+    @Test
+    public void teamByIdAsMemberFixedStatementCount() {
+        long riders = statementCount(() -> doTeamById("urn:collab:person:surfnet.nl:rdoe", 1L));
+        long gliders = statementCount(() -> doTeamById("urn:collab:person:surfnet.nl:jdoe", 3L));
+        assertEquals(gliders, riders);
+    }
+
+    private void doTeamById(String urn, Long id) {
+        given()
+                .header("name-id", urn)
+                .when()
+                .get("api/teams/teams/{id}", id)
+                .then()
+                .statusCode(SC_OK);
+    }
+
     @Test
     public void privateTeamById() {
         given()
@@ -242,7 +266,7 @@ public class TeamControllerTest extends AbstractApplicationTest {
         given()
                 .header(CONTENT_TYPE, "application/json")
                 .header("name-id", "urn:collab:person:surfnet.nl:jdoe")
-                .body(new TeamProperties(1L, "changed", "personalNote", false, true, false))
+                .body(new TeamProperties(1L, "changed", "personalNote", false, true, false, false))
                 .when()
                 .put("api/teams/teams")
                 .then()
@@ -279,7 +303,7 @@ public class TeamControllerTest extends AbstractApplicationTest {
                 .header("name-id", "urn:collab:person:surfnet.nl:jdoe")
                 .header("is-member-of", "guest-org")
                 .header(CONTENT_TYPE, "application/json")
-                .body(new TeamProperties(2L, null, null, true, false, false))
+                .body(new TeamProperties(2L, null, null, true, false, false, false))
                 .when()
                 .put("api/teams/teams")
                 .then()
@@ -291,7 +315,7 @@ public class TeamControllerTest extends AbstractApplicationTest {
         given()
                 .header("name-id", "urn:collab:person:surfnet.nl:jdoe")
                 .header(CONTENT_TYPE, "application/json")
-                .body(new TeamProperties(2L, null, null, true, false, false))
+                .body(new TeamProperties(2L, null, null, true, false, false, false))
                 .when()
                 .put("api/teams/teams")
                 .then()
@@ -303,7 +327,7 @@ public class TeamControllerTest extends AbstractApplicationTest {
     public void updateTeamWithoutBeingMember() {
         given()
                 .header(CONTENT_TYPE, "application/json")
-                .body(new TeamProperties(8L, null, null, true, false, false))
+                .body(new TeamProperties(8L, null, null, true, false, false, false))
                 .when()
                 .put("api/teams/teams")
                 .then()
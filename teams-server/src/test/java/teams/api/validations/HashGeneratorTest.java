@@ -2,12 +2,31 @@ package teams.api.validations;
 
 import org.junit.Test;
 
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class HashGeneratorTest implements HashGenerator {
 
     @Test
     public void testGenerateHash() throws Exception {
+        String hash = generateHash(32);
+        assertEquals(43, hash.length());
+        assertTrue(hash.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    public void testGenerateHashUnique() throws Exception {
+        Set<String> hashes = IntStream.range(0, 1000).mapToObj(i -> generateHash()).collect(toSet());
+        assertEquals(1000, hashes.size());
+        assertTrue(hashes.stream().allMatch(hash -> hash.length() == 171));
+    }
+
+    @Test
+    public void testGenerateHashWithEncoding() throws Exception {
         String hash = generateHash(32, "UTF-8");
         int length = hash.length();
         assertTrue(length > 32 && length < 60);
@@ -17,4 +36,4 @@ public class HashGeneratorTest implements HashGenerator {
     public void testGenerateHashException() throws Exception {
         generateHash(32, "nope");
     }
-}
\ No newline at end of file
+}
@@ -7,14 +7,18 @@ import teams.api.InvitationController;
 import teams.domain.*;
 import teams.exception.*;
 
+import java.io.BufferedReader;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 
 public class InvitationValidatorTest implements Seed {
@@ -148,6 +152,14 @@ public class InvitationValidatorTest implements Seed {
         assertEquals(4, emails.size());
     }
 
+    @Test
+    public void csvEmails() {
+        String csv = "\uFEFF\"a@a\", b@b;\tc@c\n\n   \nnope,o'brien@d\r\n";
+        List<String> emails = subject.csvEmails(new BufferedReader(new StringReader(csv))).collect(toList());
+        assertEquals(Arrays.asList("a@a", "b@b", "c@c", "nope", "o'brien@d"), emails);
+        assertEquals(4, emails.stream().filter(subject::validEmail).count());
+    }
+
     private void doDetermineFutureRole(Role role, Role intendedRole) {
         Team team = team();
         Person person = person();
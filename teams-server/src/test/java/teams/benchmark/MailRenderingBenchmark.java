@@ -0,0 +1,80 @@
+package teams.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import teams.Seed;
+import teams.domain.FederatedUser;
+import teams.domain.Invitation;
+import teams.domain.JoinRequest;
+import teams.domain.Language;
+import teams.domain.Role;
+import teams.mail.MailBox;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render throughput of the mail templates, per template and language. Rendering stops at the outbox, so no mail is
+ * stored or sent.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MailRenderingBenchmark implements Seed {
+
+    @Param({"DUTCH", "ENGLISH", "PORTUGUESE"})
+    private Language language;
+
+    private MailBox mailBox;
+    private Invitation invitation;
+    private JoinRequest joinRequest;
+    private FederatedUser federatedUser;
+
+    @Setup
+    public void setup() {
+        mailBox = new MailBox(null, "http://localhost:3006", "OpenConext") {
+            @Override
+            protected void doSendMail(String subject, String html, String... to) {
+                //rendering only
+            }
+        };
+        invitation = new Invitation(team(), "test@example.org", Role.MEMBER, language, null,
+                Instant.now().plus(30, ChronoUnit.DAYS)).addInvitationMessage(person(), "Please **join**");
+        joinRequest = new JoinRequest(person(), team(), "Let me join");
+        federatedUser = federatedUser();
+    }
+
+    @Benchmark
+    public void invitation() throws Exception {
+        mailBox.sendInviteMail(invitation, federatedUser);
+    }
+
+    @Benchmark
+    public void joinRequest() throws Exception {
+        mailBox.sendJoinRequestMail(joinRequest, Collections.singletonList("admin@example.org"), federatedUser);
+    }
+
+    @Benchmark
+    public void joinRequestAccepted() throws Exception {
+        mailBox.sendJoinRequestAccepted(joinRequest, federatedUser);
+    }
+
+    @Benchmark
+    public void joinRequestDeclined() throws Exception {
+        mailBox.sendJoinRequestRejected(joinRequest, federatedUser);
+    }
+}
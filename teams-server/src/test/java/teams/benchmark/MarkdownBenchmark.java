@@ -0,0 +1,57 @@
+package teams.benchmark;
+
+import org.commonmark.node.Node;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import teams.domain.Team;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of {@link Team#getHtmlDescription()}: the former implementation, which built a new parser and renderer
+ * on every call, against the shared and cached rendering.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarkdownBenchmark {
+
+    private Team team;
+
+    @Setup
+    public void setup() {
+        team = new Team("urn:collab:group:demo.openconext.org:riders", "riders",
+                "We are **riders**\n\nSee our [site](https://riders.example.org) and join:\n\n* on *Mondays*\n* on *Fridays*",
+                true, false, null);
+    }
+
+    @Benchmark
+    public String newParserPerCall() {
+        Parser parser = Parser.builder().build();
+        Node document = parser.parse(team.getDescription());
+        HtmlRenderer renderer = HtmlRenderer.builder().escapeHtml(false).build();
+        String render = renderer.render(document);
+        if (render.endsWith("\n")) {
+            render = render.substring(0, render.length() - 1);
+        }
+        return render.replaceAll("\n", "<br/>");
+    }
+
+    @Benchmark
+    public String sharedAndCached() {
+        return team.getHtmlDescription();
+    }
+}
@@ -0,0 +1,68 @@
+package teams.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import teams.api.validations.TokenGenerator;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of generating invitation hashes: the former implementation, which created a new {@link SecureRandom} per call
+ * and URL-encoded the Base64 output, against the shared {@link TokenGenerator}. The bulk variants generate the hashes
+ * of a {@value #BULK}-address invitation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenGeneratorBenchmark {
+
+    private static final int BULK = 5000;
+
+    @Benchmark
+    public String newSecureRandomPerCall() throws UnsupportedEncodingException {
+        return formerHash();
+    }
+
+    @Benchmark
+    public String sharedSecureRandom() {
+        return TokenGenerator.generateToken(128);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK)
+    public void newSecureRandomPerCallBulk(Blackhole blackhole) throws UnsupportedEncodingException {
+        for (int i = 0; i < BULK; i++) {
+            blackhole.consume(formerHash());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK)
+    public void sharedSecureRandomBulk(Blackhole blackhole) {
+        for (int i = 0; i < BULK; i++) {
+            blackhole.consume(TokenGenerator.generateToken(128));
+        }
+    }
+
+    private String formerHash() throws UnsupportedEncodingException {
+        byte[] bytes = new byte[128];
+        new SecureRandom().nextBytes(bytes);
+        return URLEncoder.encode(Base64.getEncoder().encodeToString(bytes), "UTF-8").replaceAll("%", "");
+    }
+}
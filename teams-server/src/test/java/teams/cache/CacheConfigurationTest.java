@@ -0,0 +1,41 @@
+package teams.cache;
+
+import org.junit.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class CacheConfigurationTest {
+
+    @Test
+    public void secondLevelCacheManager() throws InterruptedException {
+        CacheConfiguration cacheConfiguration = new CacheConfiguration();
+        try (CacheManager cacheManager = cacheConfiguration.secondLevelCacheManager(1, 5, 1, 1, 5)) {
+            CacheConfiguration.ENTITY_REGIONS.forEach(region -> assertNotNull(cacheManager.getCache(region)));
+            assertNotNull(cacheManager.getCache(CacheConfiguration.UPDATE_TIMESTAMPS_REGION));
+
+            Cache<Object, Object> queryResults = cacheManager.getCache(CacheConfiguration.QUERY_RESULTS_REGION);
+            Cache<Object, Object> timestamps = cacheManager.getCache(CacheConfiguration.UPDATE_TIMESTAMPS_REGION);
+            queryResults.put("key", "value");
+            timestamps.put("teams", 1L);
+            assertEquals("value", queryResults.get("key"));
+
+            Thread.sleep(1100);
+            assertNull(queryResults.get("key"));
+            assertEquals(1L, timestamps.get("teams"));
+        }
+    }
+
+    @Test
+    public void secondLevelCacheManagerPerContext() {
+        try (CacheManager first = new CacheConfiguration().secondLevelCacheManager(10, 5, 10, 10, 5);
+             CacheManager second = new CacheConfiguration().secondLevelCacheManager(10, 5, 10, 10, 5)) {
+            first.getCache(CacheConfiguration.ENTITY_REGIONS.get(0)).put(1L, "team");
+            assertNull(second.getCache(CacheConfiguration.ENTITY_REGIONS.get(0)).get(1L));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package teams.cache;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import teams.AbstractApplicationTest;
+
+import static io.restassured.RestAssured.given;
+import static org.apache.http.HttpStatus.SC_BAD_REQUEST;
+import static org.apache.http.HttpStatus.SC_NOT_FOUND;
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+
+public class CacheStatisticsEndpointTest extends AbstractApplicationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void statistics() {
+        long cold = statementCount(this::linkedLocals);
+        long warm = statementCount(this::linkedLocals);
+        assertTrue(String.format("Expected less statements with a warm cache, cold %s warm %s", cold, warm), warm < cold);
+
+        given()
+                .when()
+                .get("internal/secondlevelcache")
+                .then()
+                .statusCode(SC_OK)
+                .body("enabled", equalTo(true))
+                .body("queryCacheHitCount", greaterThan(0))
+                .body("regions.'teams.domain.ExternalTeam'.hitCount", greaterThan(0));
+    }
+
+    @Test
+    public void teamChangedOnOtherNode() {
+        teamById("urn:collab:person:surfnet.nl:tdoe", SC_OK);
+
+        //A team that is no longer viewable must not be served from the cache of this node
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("UPDATE teams SET viewable = 0 WHERE id = 1"));
+
+        teamById("urn:collab:person:surfnet.nl:tdoe", SC_BAD_REQUEST);
+    }
+
+    @Test
+    public void membershipChangeUpdatesCount() {
+        assertGiantsMembershipCount(3);
+
+        given()
+                .header(CONTENT_TYPE, "application/json")
+                .header("name-id", "urn:collab:person:surfnet.nl:mdoe")
+                .when()
+                .delete("api/teams/memberships/{id}", 6)
+                .then()
+                .statusCode(SC_OK);
+
+        assertGiantsMembershipCount(2);
+    }
+
+    @Test
+    public void membershipRemovedOnOtherNode() {
+        groupOfMember(SC_OK);
+
+        //Committed with plain SQL, as another node would do, which bypasses the cache of this node
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("DELETE FROM memberships WHERE id = 1"));
+
+        groupOfMember(SC_NOT_FOUND);
+    }
+
+    private void groupOfMember(int statusCode) {
+        given()
+                .auth().preemptive().basic("user", "secret")
+                .when()
+                .get("api/voot/user/{uid}/groups/{groupId}", "urn:collab:person:surfnet.nl:jdoe", "demo:openconext:org:riders")
+                .then()
+                .statusCode(statusCode);
+    }
+
+    private void assertGiantsMembershipCount(int membershipCount) {
+        given()
+                .header("name-id", "urn:collab:person:surfnet.nl:jdoe")
+                .when()
+                .get("api/teams/my-teams")
+                .then()
+                .statusCode(SC_OK)
+                .body("teamSummaries.find { it.name == 'giants' }.membershipCount", equalTo(membershipCount));
+    }
+
+    private void teamById(String nameId, int statusCode) {
+        given()
+                .header("name-id", nameId)
+                .when()
+                .get("api/teams/teams/{id}", 1L)
+                .then()
+                .statusCode(statusCode);
+    }
+
+    private void linkedLocals() {
+        given()
+                .auth().preemptive().basic("user", "secret")
+                .when()
+                .queryParam("externalGroupIds", "urn:collab:group:example.org:name1,urn:collab:group:example.org:name2")
+                .get("api/voot/linked-locals")
+                .then()
+                .statusCode(SC_OK);
+    }
+}
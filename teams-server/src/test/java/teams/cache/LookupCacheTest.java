@@ -0,0 +1,56 @@
+package teams.cache;
+
+import org.junit.Test;
+
+import javax.cache.CacheManager;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class LookupCacheTest {
+
+    @Test
+    public void notFoundIsCachedShorter() throws InterruptedException {
+        try (CacheManager cacheManager = new CacheConfiguration().secondLevelCacheManager(10, 5, 10, 1, 5)) {
+            LookupCache lookupCache = new LookupCache(cacheManager);
+            AtomicInteger queries = new AtomicInteger();
+
+            lookup(lookupCache, "unknown", Optional.empty(), queries);
+            lookup(lookupCache, "unknown", Optional.empty(), queries);
+            assertEquals(1, queries.get());
+
+            lookup(lookupCache, "known", Optional.of("known"), queries);
+            assertEquals(2, queries.get());
+
+            Thread.sleep(1100);
+            lookup(lookupCache, "unknown", Optional.empty(), queries);
+            lookup(lookupCache, "known", Optional.of("known"), queries);
+            assertEquals(3, queries.get());
+        }
+    }
+
+    @Test
+    public void staleEntryIsEvicted() {
+        try (CacheManager cacheManager = new CacheConfiguration().secondLevelCacheManager(10, 5, 10, 10, 5)) {
+            LookupCache lookupCache = new LookupCache(cacheManager);
+            AtomicInteger queries = new AtomicInteger();
+
+            lookup(lookupCache, "link", Optional.of("link"), queries);
+            //The entity behind the cached id no longer matches the key, e.g. a public link that was reset
+            assertFalse(lookupCache.lookup(LookupCache.PUBLIC_LINKS, "link", Optional::empty, value -> 1L,
+                    id -> Optional.of("reset"), "link"::equals).isPresent());
+
+            lookup(lookupCache, "link", Optional.empty(), queries);
+            assertEquals(2, queries.get());
+        }
+    }
+
+    private Optional<String> lookup(LookupCache lookupCache, String key, Optional<String> result, AtomicInteger queries) {
+        return lookupCache.lookup(LookupCache.PUBLIC_LINKS, key, () -> {
+            queries.incrementAndGet();
+            return result;
+        }, value -> 1L, id -> result, key::equals);
+    }
+}
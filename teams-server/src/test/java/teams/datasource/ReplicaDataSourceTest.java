@@ -0,0 +1,120 @@
+package teams.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import teams.AbstractApplicationTest;
+import teams.domain.Person;
+
+import javax.persistence.EntityManagerFactory;
+
+import static io.restassured.RestAssured.given;
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+
+/**
+ * The replica is the local database, unless a second instance is configured with -Dreplica-test-url.
+ */
+@TestPropertySource(properties = {
+        "replica.datasource.url=${replica-test-url:${spring.datasource.url}}",
+        "replica.datasource.username=${spring.datasource.username}",
+        "replica.datasource.password=${spring.datasource.password}"
+})
+public class ReplicaDataSourceTest extends AbstractApplicationTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void readOnlyRequest() {
+        double replicaConnections = replicaConnections(() -> given()
+                .auth().preemptive().basic("user", "secret")
+                .when()
+                .get("api/voot/group/{id}", "demo:openconext:org:riders")
+                .then()
+                .statusCode(SC_OK));
+        assertTrue(replicaConnections > 0);
+    }
+
+    @Test
+    public void readWriteRequest() {
+        assertEquals(0D, replicaConnections(() -> deleteMembership("urn:collab:person:surfnet.nl:mdoe", 6)), 0D);
+    }
+
+    @Test
+    public void readYourOwnWrites() {
+        assertTrue(replicaConnections(() -> myTeams("urn:collab:person:surfnet.nl:mdoe")) > 0);
+
+        deleteMembership("urn:collab:person:surfnet.nl:mdoe", 6);
+
+        assertEquals(0D, replicaConnections(() -> myTeams("urn:collab:person:surfnet.nl:mdoe")), 0D);
+        assertTrue(replicaConnections(() -> myTeams("urn:collab:person:surfnet.nl:jdoe")) > 0);
+    }
+
+    @Test
+    public void replicaReadDoesNotPopulateCache() {
+        deleteMembership("urn:collab:person:surfnet.nl:mdoe", 6);
+
+        long personPuts = personCachePuts();
+        assertTrue(replicaConnections(() -> given()
+                .auth().preemptive().basic("user", "secret")
+                .when()
+                .get("api/voot/members/{id}", "demo:openconext:org:giants")
+                .then()
+                .statusCode(SC_OK)) > 0);
+        assertEquals(personPuts, personCachePuts());
+
+        assertEquals(0D, replicaConnections(() -> given()
+                .header("name-id", "urn:collab:person:surfnet.nl:mdoe")
+                .when()
+                .get("api/teams/teams/{id}", 2)
+                .then()
+                .statusCode(SC_OK)
+                .body("memberships.person.name", not(hasItem("Tracey Doe")))), 0D);
+        assertTrue(personCachePuts() > personPuts);
+    }
+
+    private long personCachePuts() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+                .getCacheRegionStatistics(Person.class.getName()).getPutCount();
+    }
+
+    private void myTeams(String nameId) {
+        given()
+                .header("name-id", nameId)
+                .when()
+                .get("api/teams/my-teams")
+                .then()
+                .statusCode(SC_OK);
+    }
+
+    private void deleteMembership(String nameId, long id) {
+        given()
+                .header(CONTENT_TYPE, "application/json")
+                .header("name-id", nameId)
+                .when()
+                .delete("api/teams/memberships/{id}", id)
+                .then()
+                .statusCode(SC_OK);
+    }
+
+    private double replicaConnections(Runnable runnable) {
+        double before = replicaCounter();
+        runnable.run();
+        return replicaCounter() - before;
+    }
+
+    private double replicaCounter() {
+        return meterRegistry.counter(ReplicaRoutingDataSource.CONNECTIONS_METRIC,
+                ReplicaRoutingDataSource.TARGET_TAG, "replica").count();
+    }
+}
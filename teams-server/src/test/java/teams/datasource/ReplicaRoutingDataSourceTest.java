@@ -0,0 +1,113 @@
+package teams.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final ReplicaLagGuard replicaLagGuard = new ReplicaLagGuard(Duration.ofSeconds(10));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    private ReplicaRoutingDataSource dataSource;
+
+    @Before
+    public void before() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        DataSource replica = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        dataSource = new ReplicaRoutingDataSource(primary, replica, replicaLagGuard, meterRegistry);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("urn:collab:person:surfnet.nl:jdoe", "N/A"));
+    }
+
+    @After
+    public void after() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void readOnlyTransactionOfReadOnlyRequest() throws SQLException {
+        readOnly(true, true);
+        assertSame(replicaConnection, dataSource.getConnection());
+        assertEquals(1D, meterRegistry.counter(ReplicaRoutingDataSource.CONNECTIONS_METRIC,
+                ReplicaRoutingDataSource.TARGET_TAG, "replica").count(), 0D);
+    }
+
+    @Test
+    public void readWriteTransactionOfReadOnlyRequest() throws SQLException {
+        readOnly(true, false);
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    public void readOnlyTransactionOfReadWriteRequest() throws SQLException {
+        readOnly(false, true);
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    public void readOnlyTransactionOutsideRequest() throws SQLException {
+        RequestContextHolder.resetRequestAttributes();
+        readOnly(false, true);
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    public void recentWriteOfUser() throws SQLException {
+        readOnly(true, true);
+        replicaLagGuard.written();
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("urn:collab:person:surfnet.nl:mdoe", "N/A"));
+        assertSame(replicaConnection, dataSource.getConnection());
+    }
+
+    @Test
+    public void lagWindowPassed() throws SQLException, InterruptedException {
+        ReplicaLagGuard shortReplicaLagGuard = new ReplicaLagGuard(Duration.ofMillis(50));
+        DataSource primary = mock(DataSource.class);
+        DataSource replica = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        ReplicaRoutingDataSource shortLagDataSource = new ReplicaRoutingDataSource(primary, replica, shortReplicaLagGuard, meterRegistry);
+
+        readOnly(true, true);
+        shortReplicaLagGuard.written();
+        assertSame(primaryConnection, shortLagDataSource.getConnection());
+
+        Thread.sleep(100);
+        assertSame(replicaConnection, shortLagDataSource.getConnection());
+    }
+
+    private void readOnly(boolean request, boolean transaction) {
+        if (request) {
+            this.request.setAttribute(ReplicaRoutingDataSource.READ_ONLY_REQUEST_ATTRIBUTE, Boolean.TRUE);
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(transaction);
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.Test;
 import teams.Seed;
 
 import java.time.Instant;
+import java.util.Collections;
 
 import static org.junit.Assert.*;
 
@@ -25,9 +26,7 @@ public class InvitationInfoTest implements Seed {
     private InvitationInfo getInvitationInfo(Instant now) {
         Invitation invitation = new Invitation(team(), "mail@example.org", Role.ADMIN, Language.DUTCH, now, null);
         invitation.addInvitationMessage(person(), "Please join");
-        return new InvitationInfo(
-                invitation,
-                federatedUser());
+        return new InvitationInfo(invitation, false, Collections.emptyList());
     }
 
 }
\ No newline at end of file
@@ -12,9 +12,12 @@ import java.io.UnsupportedEncodingException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static teams.domain.Invitation.EXPIRY_DAYS;
 import static teams.domain.Language.DUTCH;
@@ -61,6 +64,22 @@ public class InvitationTest implements Seed {
         assertEquals(EXPIRY_DAYS - daysAgo, daysValid);
     }
 
+    @Test
+    public void restoreInvitationMessages() {
+        Invitation invitation = invitation("email@test.org");
+        invitation.accepted(false);
+        Set<InvitationMessage> invitationMessages = new HashSet<>(invitation.getInvitationMessages());
+
+        invitation.addInvitationMessage(person(), "Please join again");
+        assertEquals(2, invitation.getInvitationMessages().size());
+        assertFalse(invitation.isDeclined());
+
+        invitation.restoreInvitationMessages(invitationMessages, true);
+        assertEquals("Please join", invitation.getLatestInvitationMessage().getMessage());
+        assertEquals(1, invitation.getInvitationMessages().size());
+        assertTrue(invitation.isDeclined());
+    }
+
     private Invitation invitation() throws UnsupportedEncodingException {
         return invitation("email@test.org");
     }
@@ -0,0 +1,46 @@
+package teams.domain;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OutboxMessageTest {
+
+    @Test
+    public void recipients() {
+        OutboxMessage message = new OutboxMessage("subject", "<p>body</p>", "a@example.org", "b@example.org");
+        assertArrayEquals(new String[]{"a@example.org", "b@example.org"}, message.recipientList());
+        assertEquals(OutboxMessageStatus.PENDING, message.getStatus());
+    }
+
+    @Test
+    public void failedBacksOffExponentially() {
+        OutboxMessage message = new OutboxMessage("subject", "<p>body</p>", "a@example.org");
+        Duration initialBackoff = Duration.ofSeconds(30);
+
+        message.failed("Connection refused", initialBackoff, 3);
+        assertEquals(OutboxMessageStatus.PENDING, message.getStatus());
+        assertBackoff(message, Duration.ofSeconds(30));
+
+        message.failed("Connection refused", initialBackoff, 3);
+        assertEquals(OutboxMessageStatus.PENDING, message.getStatus());
+        assertBackoff(message, Duration.ofSeconds(60));
+
+        message.failed("Connection refused", initialBackoff, 3);
+        assertEquals(OutboxMessageStatus.FAILED, message.getStatus());
+        assertEquals(3, message.getAttempts());
+        assertEquals("Connection refused", message.getLastError());
+        assertNull(message.getNextAttempt());
+    }
+
+    private void assertBackoff(OutboxMessage message, Duration backoff) {
+        Duration actual = Duration.between(Instant.now(), message.getNextAttempt());
+        assertTrue(actual.compareTo(backoff) <= 0 && actual.compareTo(backoff.minusSeconds(5)) > 0);
+    }
+}
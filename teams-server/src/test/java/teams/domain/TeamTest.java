@@ -19,6 +19,13 @@ public class TeamTest implements Seed {
         assertEquals("<p><em>Nice</em></p>", team.getHtmlDescription());
     }
 
+    @Test
+    public void htmlDescriptionLineBreaks() {
+        Team team = new Team("urn", "name", "first\nsecond", true, false,null);
+        assertEquals("<p>first<br/>second</p>", team.getHtmlDescription());
+        assertSame(team.getHtmlDescription(), team.getHtmlDescription());
+    }
+
     @Test
     public void teamEquals() {
         Set<Team> set = new HashSet<>();
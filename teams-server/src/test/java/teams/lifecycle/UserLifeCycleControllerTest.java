@@ -1,14 +1,19 @@
 package teams.lifecycle;
 
+import io.restassured.common.mapper.TypeRef;
+import io.restassured.http.ContentType;
 import io.restassured.http.Header;
 import org.junit.Test;
 import teams.AbstractApplicationTest;
 
+import java.util.Arrays;
 import java.util.Map;
 
 import static io.restassured.RestAssured.given;
 import static java.util.stream.Collectors.toMap;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class UserLifeCycleControllerTest extends AbstractApplicationTest {
 
@@ -26,6 +31,25 @@ public class UserLifeCycleControllerTest extends AbstractApplicationTest {
         assertLifeCycleResult(result);
     }
 
+    @Test
+    public void previewFixedStatementCount() {
+        //jdoe has more memberships and join requests than unhappy
+        long jdoe = statementCount(() -> doPreview("urn:collab:person:surfnet.nl:jdoe"));
+        long unhappy = statementCount(() -> doPreview(personUrn));
+        assertEquals(unhappy, jdoe);
+    }
+
+    private void doPreview(String urn) {
+        given()
+                .auth()
+                .preemptive()
+                .basic("life", "secret")
+                .when()
+                .get("deprovision/{user}", urn)
+                .then()
+                .statusCode(200);
+    }
+
     @Test
     public void previewUnauthenticated() {
         given()
@@ -59,6 +83,33 @@ public class UserLifeCycleControllerTest extends AbstractApplicationTest {
         assertEquals(0, result.getData().size());
     }
 
+    @Test
+    public void bulkDryRun() {
+        Map<String, LifeCycleResult> results = doBulkDeprovision(true, this.personUrn, "nope.nope");
+        assertEquals(2, results.size());
+        assertLifeCycleResult(results.get(this.personUrn));
+        assertEquals(0, results.get("nope.nope").getData().size());
+        assertTrue(teamRepository.findByUrn("demo:openconext:org:orphan").isPresent());
+    }
+
+    @Test
+    public void bulkDeprovision() {
+        String ownerUrn = "urn:collab:person:example.com:owner";
+        Map<String, LifeCycleResult> results = doBulkDeprovision(false, this.personUrn, ownerUrn, "nope.nope");
+        assertEquals(3, results.size());
+        assertLifeCycleResult(results.get(this.personUrn));
+        assertEquals(0, results.get("nope.nope").getData().size());
+
+        assertFalse(personRepository.findByUrnIgnoreCase(this.personUrn).isPresent());
+        assertFalse(personRepository.findByUrnIgnoreCase(ownerUrn).isPresent());
+        //The orphans team had no other members, riders still has
+        assertFalse(teamRepository.findByUrn("demo:openconext:org:orphan").isPresent());
+        assertTrue(teamRepository.findByUrn("demo:openconext:org:riders").isPresent());
+
+        results = doBulkDeprovision(false, this.personUrn);
+        assertEquals(0, results.get(this.personUrn).getData().size());
+    }
+
     @Test
     public void contentNegotion() {
         LifeCycleResult result = given()
@@ -82,6 +133,19 @@ public class UserLifeCycleControllerTest extends AbstractApplicationTest {
                 .as(LifeCycleResult.class);
     }
 
+    private Map<String, LifeCycleResult> doBulkDeprovision(boolean dryRun, String... personUrns) {
+        return given()
+                .auth()
+                .preemptive()
+                .basic("life", "secret")
+                .contentType(ContentType.JSON)
+                .body(Arrays.asList(personUrns))
+                .when()
+                .post("deprovision" + (dryRun ? "/dry-run" : ""))
+                .as(new TypeRef<Map<String, LifeCycleResult>>() {
+                });
+    }
+
     private void assertLifeCycleResult(LifeCycleResult result) {
         Map<String, String> map = result.getData().stream().collect(toMap(attr -> attr.getName(), attr -> attr.getValue()));
         assertEquals(6, map.size());
@@ -0,0 +1,43 @@
+package teams.mail;
+
+import org.junit.Test;
+import teams.Seed;
+import teams.domain.Invitation;
+import teams.domain.Language;
+import teams.domain.Role;
+
+import java.sql.Date;
+import java.text.DateFormat;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+import static org.junit.Assert.assertTrue;
+
+public class MailBoxTemplateTest implements Seed {
+
+    private String html;
+
+    private final MailBox mailBox = new MailBox(null, "http://localhost:3006", "OpenConext") {
+        @Override
+        protected void doSendMail(String subject, String html, String... to) {
+            MailBoxTemplateTest.this.html = html;
+        }
+    };
+
+    @Test
+    public void membershipExpiryDate() throws Exception {
+        Instant membershipExpiryDate = Instant.now().plus(30, ChronoUnit.DAYS);
+        assertExpiryDate(Language.DUTCH, Locale.forLanguageTag("nl-NL"), membershipExpiryDate);
+        assertExpiryDate(Language.ENGLISH, Locale.ENGLISH, membershipExpiryDate);
+    }
+
+    private void assertExpiryDate(Language language, Locale locale, Instant membershipExpiryDate) throws Exception {
+        Invitation invitation = new Invitation(team(), "test@example.org", Role.MEMBER, language, null, membershipExpiryDate)
+                .addInvitationMessage(person(), "Please join");
+        mailBox.sendInviteMail(invitation, federatedUser());
+
+        String expected = DateFormat.getDateInstance(DateFormat.FULL, locale).format(Date.from(membershipExpiryDate));
+        assertTrue(html.contains(expected));
+    }
+}
@@ -8,6 +8,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import teams.AbstractApplicationTest;
 import teams.domain.*;
 
@@ -23,6 +25,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, value = {"spring.profiles.active=prod"})
+//The outbox is drained by other threads, which must see the committed messages
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 public class MailBoxTest extends AbstractApplicationTest {
 
     private static final String EMAIL = "test@test.org";
@@ -84,6 +88,14 @@ public class MailBoxTest extends AbstractApplicationTest {
                 EMAIL, joinRequest.getPerson().getName())));
     }
 
+    @Test
+    public void sendMailsInBatches() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mailBox.sendJoinRequestAccepted(joinRequest(), federatedUser());
+        }
+        await().until(() -> greenMail.getReceivedMessages().length == 5);
+    }
+
     @Test
     public void sendJoinRequestAcceptedMail() throws Exception {
         mailBox.sendJoinRequestAccepted(joinRequest(), federatedUser());
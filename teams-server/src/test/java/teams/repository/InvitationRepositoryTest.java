@@ -1,23 +1,37 @@
 package teams.repository;
 
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import teams.AbstractApplicationTest;
 import teams.domain.Invitation;
 import teams.domain.Language;
 import teams.domain.Role;
 import teams.domain.Team;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class InvitationRepositoryTest extends AbstractApplicationTest {
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
-    public void findFirstByInvitationHash() throws Exception {
-        Invitation invitation = invitationRepository.findFirstByInvitationHash("secret").get();
+    public void findWithTeamByInvitationHash() {
+        Invitation invitation = invitationRepository.findWithTeamByInvitationHash("secret").get();
         assertEquals("secret", invitation.getInvitationHash());
+
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+
+        assertTrue(persistenceUnitUtil.isLoaded(invitation, "team"));
+        assertFalse(persistenceUnitUtil.isLoaded(invitation.getTeam(), "memberships"));
+        assertEquals("Ronald Doe", invitation.getLatestInvitationMessage().getPerson().getName());
     }
 
     @Test
@@ -39,7 +53,7 @@ public class InvitationRepositoryTest extends AbstractApplicationTest {
         invitation.addInvitationMessage(personRepository.findById(1L).get(), "Please join");
         invitationRepository.save(invitation);
 
-        int count = invitationRepository.deleteExpiredInvitations(System.currentTimeMillis() + 3600 * 1000);
+        int count = invitationRepository.deleteExpiredInvitations(System.currentTimeMillis() + 3600 * 1000, 100);
         assertEquals(1, count);
     }
 
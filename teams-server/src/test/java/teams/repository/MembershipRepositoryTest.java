@@ -1,14 +1,20 @@
 package teams.repository;
 
 import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
 import teams.AbstractApplicationTest;
 import teams.domain.*;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class MembershipRepositoryTest extends AbstractApplicationTest {
 
@@ -18,13 +24,29 @@ public class MembershipRepositoryTest extends AbstractApplicationTest {
         assertEquals(Role.ADMIN, membershipOptional.get().getRole());
     }
 
+    @Test
+    public void existsByTeamIdAndPersonId() {
+        assertTrue(membershipRepository.existsByTeamIdAndPersonId(1L, 1L));
+        assertFalse(membershipRepository.existsByTeamIdAndPersonId(1L, 2L));
+    }
+
+    @Test
+    public void findByTeamIdAndRoleIn() {
+        List<Membership> memberships = membershipRepository.findByTeamIdAndRoleIn(2L, Arrays.asList(Role.ADMIN, Role.OWNER));
+        List<String> names = memberships.stream().map(membership -> membership.getPerson().getName()).sorted().collect(toList());
+        assertEquals(Arrays.asList("Mary Doe", "William Doe"), names);
+    }
+
     @Test
     public void deleteExpiredMemberships() throws Exception {
         Team team = teamRepository.findById(1L).get();
         Person person = personRepository.findById(6L).get();
         Instant thePast = Instant.now().minus(15, ChronoUnit.DAYS);
         membershipRepository.save(new Membership(Role.ADMIN, team, person, thePast, MembershipOrigin.INITIAL_ADMIN, "John Doe"));
-        int deleted = membershipRepository.deleteExpiredMemberships(0L);
+        Instant now = Instant.now();
+        List<Long> ids = membershipRepository.findExpiredMembershipIds(now, 0L, PageRequest.of(0, 10));
+        assertEquals(1, ids.size());
+        int deleted = membershipRepository.deleteExpiredMemberships(ids, now);
         assertEquals(1, deleted);
     }
 
@@ -1,6 +1,7 @@
 package teams.repository;
 
 import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
 import teams.AbstractApplicationTest;
 import teams.domain.Membership;
 import teams.domain.Person;
@@ -42,7 +43,10 @@ public class PersonRepositoryTest extends AbstractApplicationTest {
         person.setLastLoginDate(thePast);
         personRepository.save(person);
 
-        int deleted = personRepository.deleteOrphanPersons(1L, Collections.singletonList("Nope"));
+        Instant lastLoginBefore = Instant.now().minus(1, ChronoUnit.DAYS);
+        List<Long> ids = personRepository.findOrphanPersonIds(lastLoginBefore, 0L, Collections.singletonList("Nope"), PageRequest.of(0, 10));
+        assertEquals(Collections.singletonList(6L), ids);
+        int deleted = personRepository.deleteOrphanPersons(ids, lastLoginBefore);
         assertEquals(1, deleted);
     }
 }
@@ -102,6 +102,24 @@ public class TeamRepositoryTest extends AbstractApplicationTest {
         assertTrue(arePersonsLoaded(team));
     }
 
+    @Test
+    public void fetchTeamView() {
+        Team team = teamRepository.fetchTeamView(teamRepository.findFirstById(1L), true);
+        assertTrue(persistenceUnitUtil.isLoaded(team, "externalTeams"));
+        assertTrue(persistenceUnitUtil.isLoaded(team, "invitations"));
+        assertTrue(persistenceUnitUtil.isLoaded(team, "joinRequests"));
+        assertTrue(team.getJoinRequests().stream()
+                .allMatch(joinRequest -> persistenceUnitUtil.isLoaded(joinRequest, "person")));
+    }
+
+    @Test
+    public void fetchTeamViewSummary() {
+        Team team = teamRepository.fetchTeamView(teamRepository.findFirstById(1L), false);
+        assertTrue(persistenceUnitUtil.isLoaded(team, "externalTeams"));
+        assertFalse(persistenceUnitUtil.isLoaded(team, "invitations"));
+        assertFalse(persistenceUnitUtil.isLoaded(team, "joinRequests"));
+    }
+
     @Test
     public void findIdByUrn() {
         Long idByUrn = teamRepository.findIdByUrn("demo:openconext:org:wolves").get();
@@ -1,3 +1,6 @@
+DELETE FROM scheduler_locks;
+DELETE FROM mail_outbox;
+DELETE FROM invitation_jobs;
 DELETE FROM invitation_message;
 DELETE FROM invitations;
 DELETE FROM requests;
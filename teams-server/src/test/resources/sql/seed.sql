@@ -93,15 +93,15 @@ INSERT INTO `invitation_message` (`id`, `message`, `timestamp`, `invitation_id`,
 VALUES
   (2, 'Please join now', 2491484828910, 2, 1);
 
-INSERT INTO `requests` (`id`, `message`, `team_id`, `person_id`)
+INSERT INTO `requests` (`id`, `message`, `team_id`, `person_id`, `notified`)
 VALUES
-  (1, 'Please let me join', 1, 6);
-INSERT INTO `requests` (`id`, `message`, `team_id`, `person_id`)
+  (1, 'Please let me join', 1, 6, NOW());
+INSERT INTO `requests` (`id`, `message`, `team_id`, `person_id`, `notified`)
 VALUES
-  (2, 'Please let me join too', 1, 2);
-INSERT INTO `requests` (`id`, `message`, `team_id`, `person_id`)
+  (2, 'Please let me join too', 1, 2, NOW());
+INSERT INTO `requests` (`id`, `message`, `team_id`, `person_id`, `notified`)
 VALUES
-  (3, 'Please, please let me join', 4, 1);
-INSERT INTO `requests` (`id`, `message`, `team_id`, `person_id`)
+  (3, 'Please, please let me join', 4, 1, NOW());
+INSERT INTO `requests` (`id`, `message`, `team_id`, `person_id`, `notified`)
 VALUES
-  (4, 'Please, please let me join', 7, 7);
+  (4, 'Please, please let me join', 7, 7, NOW());